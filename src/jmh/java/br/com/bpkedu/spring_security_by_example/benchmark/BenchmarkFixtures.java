@@ -0,0 +1,115 @@
+package br.com.bpkedu.spring_security_by_example.benchmark;
+
+import br.com.bpkedu.spring_security_by_example.domain.User;
+import br.com.bpkedu.spring_security_by_example.repository.ReferenceTokenStore;
+import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import br.com.bpkedu.spring_security_by_example.service.LoginAttemptService;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService;
+import br.com.bpkedu.spring_security_by_example.service.ReferenceTokenService;
+import br.com.bpkedu.spring_security_by_example.service.TokenService;
+import br.com.bpkedu.spring_security_by_example.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Monta os serviços da aplicação sem contexto Spring nem banco de dados,
+ * para que os benchmarks meçam apenas o código do caminho quente.
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    static final String EXPIRATION = "86400000";
+
+    private BenchmarkFixtures() {
+    }
+
+    static MetricsService metricsService() {
+        return new MetricsService(new SimpleMeterRegistry());
+    }
+
+    static TokenService tokenService(MetricsService metricsService) {
+        TokenService tokenService = new TokenService(metricsService);
+        ReflectionTestUtils.setField(tokenService, "secret", SECRET);
+        ReflectionTestUtils.setField(tokenService, "expiration", EXPIRATION);
+        return tokenService;
+    }
+
+    static LoginAttemptService loginAttemptService(UserRepository userRepository) {
+        return new LoginAttemptService(userRepository, 5, 30_000, 900_000, 10_000, 1_000, 20, 60_000, 50);
+    }
+
+    static UserDetailsServiceImpl userDetailsService(UserRepository userRepository, MetricsService metricsService) {
+        return new UserDetailsServiceImpl(userRepository, loginAttemptService(userRepository), metricsService,
+                Duration.ofSeconds(5));
+    }
+
+    static ReferenceTokenService referenceTokenService(int maxEntries) {
+        return new ReferenceTokenService(referenceTokenStore(), Duration.ofHours(24), maxEntries, Duration.ofSeconds(30));
+    }
+
+    /**
+     * {@link ReferenceTokenStore} em memória, no lugar da tabela {@code reference_tokens}.
+     */
+    static ReferenceTokenStore referenceTokenStore() {
+        Map<String, ReferenceTokenStore.StoredToken> tokens = new ConcurrentHashMap<>();
+        return new ReferenceTokenStore() {
+            @Override
+            public Optional<StoredToken> load(String hash) {
+                return Optional.ofNullable(tokens.get(hash));
+            }
+
+            @Override
+            public void save(StoredToken token) {
+                tokens.put(token.hash(), token);
+            }
+
+            @Override
+            public void delete(String hash) {
+                tokens.remove(hash);
+            }
+
+            @Override
+            public int deleteByUsername(String username) {
+                int before = tokens.size();
+                tokens.values().removeIf(token -> token.username().equals(username));
+                return before - tokens.size();
+            }
+
+            @Override
+            public int deleteExpired(long now) {
+                int before = tokens.size();
+                tokens.values().removeIf(token -> token.expiresAt() <= now);
+                return before - tokens.size();
+            }
+        };
+    }
+
+    static User user(String username, String role) {
+        User user = new User(username, "{noop}" + username, username + "@example.com", role);
+        user.setId((long) username.hashCode());
+        return user;
+    }
+
+    /**
+     * {@link UserRepository} em memória: responde apenas {@code findByUsername}.
+     */
+    static UserRepository userRepository(Map<String, User> users) {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername" -> Optional.ofNullable(users.get((String) args[0]));
+                    case "updateLoginAttempts" -> 0;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
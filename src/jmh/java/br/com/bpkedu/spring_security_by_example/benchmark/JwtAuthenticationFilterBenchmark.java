@@ -0,0 +1,99 @@
+package br.com.bpkedu.spring_security_by_example.benchmark;
+
+import br.com.bpkedu.spring_security_by_example.config.JwtAuthenticationFilter;
+import br.com.bpkedu.spring_security_by_example.domain.User;
+import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService;
+import br.com.bpkedu.spring_security_by_example.service.ReferenceTokenService;
+import br.com.bpkedu.spring_security_by_example.service.SecurityAuditService;
+import br.com.bpkedu.spring_security_by_example.service.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    /**
+     * valid: token válido; invalid: assinatura inválida; none: requisição sem Authorization;
+     * reference: token de referência válido.
+     */
+    @Param({"valid", "invalid", "none", "reference"})
+    public String tokenKind;
+
+    private JwtAuthenticationFilter filter;
+    private SecurityAuditService auditService;
+    private String authorizationHeader;
+
+    @Setup
+    public void setup() {
+        MetricsService metricsService = BenchmarkFixtures.metricsService();
+        TokenService tokenService = BenchmarkFixtures.tokenService(metricsService);
+        ReferenceTokenService referenceTokenService = BenchmarkFixtures.referenceTokenService(100_000);
+        User admin = BenchmarkFixtures.user("admin", "ROLE_ADMIN");
+        auditService = new SecurityAuditService(new SimpleMeterRegistry(), 8192);
+        UserRepository userRepository = BenchmarkFixtures.userRepository(Map.of("admin", admin));
+        filter = new JwtAuthenticationFilter(
+                tokenService,
+                BenchmarkFixtures.userDetailsService(userRepository, metricsService),
+                metricsService,
+                auditService,
+                referenceTokenService,
+                BenchmarkFixtures.loginAttemptService(userRepository));
+
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        String token = tokenService.generateToken(authentication);
+        authorizationHeader = switch (tokenKind) {
+            case "valid" -> "Bearer " + token;
+            case "reference" -> "Bearer " + referenceTokenService.issue(authentication);
+            case "invalid" -> "Bearer " + token.substring(0, token.length() - 4) + "AAAA";
+            default -> null;
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        auditService.destroy();
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setServletPath("/api/products");
+        if (authorizationHeader != null) {
+            request.addHeader("Authorization", authorizationHeader);
+        }
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.bpkedu.spring_security_by_example.benchmark;
+
+import br.com.bpkedu.spring_security_by_example.domain.Product;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compara JSON, Smile e CBOR na serialização e desserialização de listagens do
+ * catálogo. O tamanho de cada payload (puro e com gzip) é impresso no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"10", "1000", "10000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<Product> products;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "smile" -> new SmileMapper();
+            case "cbor" -> new CBORMapper();
+            default -> new ObjectMapper();
+        };
+        JavaType type = mapper.getTypeFactory().constructCollectionType(List.class, Product.class);
+        writer = mapper.writerFor(type);
+        reader = mapper.readerFor(type);
+        products = ProductSerializationBenchmark.products(size, new Random(42));
+        payload = writer.writeValueAsBytes(products);
+
+        System.out.printf("%n[payload] %s, %d produtos: %d bytes (gzip: %d bytes)%n",
+                format, size, payload.length, gzip(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public List<Product> deserialize() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(data);
+        }
+        return compressed.toByteArray();
+    }
+}
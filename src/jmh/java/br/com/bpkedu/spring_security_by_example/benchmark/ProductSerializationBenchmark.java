@@ -0,0 +1,63 @@
+package br.com.bpkedu.spring_security_by_example.benchmark;
+
+import br.com.bpkedu.spring_security_by_example.domain.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    @Param({"1", "100", "1000", "10000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<Product> products;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = new ObjectMapper();
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        products = products(size, new Random(42));
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception {
+        return writer.writeValueAsBytes(products);
+    }
+
+    static List<Product> products(int size, Random random) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName("Produto " + (i + 1));
+            product.setDescription("Descrição do produto " + (i + 1) + " para o benchmark de serialização");
+            product.setPrice(BigDecimal.valueOf(random.nextInt(100, 1_000_000), 2));
+            product.setQuantity(random.nextInt(0, 1000));
+            products.add(product);
+        }
+        return products;
+    }
+}
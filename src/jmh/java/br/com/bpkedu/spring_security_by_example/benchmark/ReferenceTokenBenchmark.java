@@ -0,0 +1,89 @@
+package br.com.bpkedu.spring_security_by_example.benchmark;
+
+import br.com.bpkedu.spring_security_by_example.service.ReferenceTokenService;
+import br.com.bpkedu.spring_security_by_example.service.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a resolução de tokens de referência com a verificação de JWT, com um índice
+ * já populado com {@code activeTokens} tokens. O tamanho de cada token é impresso no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceTokenBenchmark {
+
+    @Param({"1000", "100000"})
+    public int activeTokens;
+
+    private TokenService tokenService;
+    private ReferenceTokenService referenceTokenService;
+    private Authentication authentication;
+    private String jwt;
+    private String referenceToken;
+
+    @Setup
+    public void setup() {
+        tokenService = BenchmarkFixtures.tokenService(BenchmarkFixtures.metricsService());
+        referenceTokenService = BenchmarkFixtures.referenceTokenService(activeTokens + 1);
+        authentication = new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        for (int i = 0; i < activeTokens - 1; i++) {
+            referenceTokenService.issue(new UsernamePasswordAuthenticationToken(
+                    "user-" + i, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        }
+        jwt = tokenService.generateToken(authentication);
+        referenceToken = referenceTokenService.issue(authentication);
+        System.out.printf("%n[tokens] JWT: %d bytes | referência: %d bytes%n", jwt.length(), referenceToken.length());
+    }
+
+    @Benchmark
+    public String issueJwt() {
+        return tokenService.generateToken(authentication);
+    }
+
+    /**
+     * Inclui a gravação no store em memória (na aplicação, um INSERT) e a revogação,
+     * para o índice não crescer durante a medição.
+     */
+    @Benchmark
+    public String issueReference() {
+        String token = referenceTokenService.issue(authentication);
+        referenceTokenService.revoke(token);
+        return token;
+    }
+
+    /**
+     * O que o filtro faz com um JWT: validação seguida da extração do usuário.
+     */
+    @Benchmark
+    public String verifyJwt() {
+        return tokenService.validateToken(jwt) ? tokenService.getUsernameFromToken(jwt) : null;
+    }
+
+    @Benchmark
+    public Optional<ReferenceTokenService.Principal> resolveReference() {
+        return referenceTokenService.resolve(referenceToken);
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.bpkedu.spring_security_by_example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramas de latência por operação, em microssegundos.
+ * <p>
+ * A latência "corrigida" é medida a partir do instante em que a requisição
+ * deveria ter sido enviada pelo agendamento em taxa fixa, e não do envio
+ * real; assim, filas formadas durante pausas do servidor entram no resultado
+ * (correção de coordinated omission). O "tempo de serviço" é medido a partir
+ * do envio real, apenas para comparação.
+ */
+final class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<Workload.Operation, Histogram> corrected = new EnumMap<>(Workload.Operation.class);
+    private final Map<Workload.Operation, Histogram> service = new EnumMap<>(Workload.Operation.class);
+    private final Map<Workload.Operation, LongAdder> errors = new EnumMap<>(Workload.Operation.class);
+    private final Histogram allCorrected = histogram();
+    private long elapsedNanos;
+
+    LatencyReport() {
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            corrected.put(operation, histogram());
+            service.put(operation, histogram());
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Workload.Operation operation, long intendedStartNanos, long sentNanos, long endNanos, boolean ok) {
+        long correctedMicros = clamp(TimeUnit.NANOSECONDS.toMicros(endNanos - intendedStartNanos));
+        corrected.get(operation).recordValue(correctedMicros);
+        service.get(operation).recordValue(clamp(TimeUnit.NANOSECONDS.toMicros(endNanos - sentNanos)));
+        allCorrected.recordValue(correctedMicros);
+        if (!ok) {
+            errors.get(operation).increment();
+        }
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        out.println();
+        out.printf("%-10s %9s %7s %10s %10s %10s %10s | %10s %10s%n",
+                "operação", "reqs", "erros", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p50", "svc p99");
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            Histogram histogram = corrected.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Histogram serviceTime = service.get(operation);
+            out.printf("%-10s %9d %7d %10.2f %10.2f %10.2f %10.2f | %10.2f %10.2f%n",
+                    operation.key, histogram.getTotalCount(), errors.get(operation).sum(),
+                    millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0,
+                    millis(serviceTime, 50), millis(serviceTime, 99));
+        }
+        out.printf("%-10s %9d %7d %10.2f %10.2f %10.2f %10.2f%n",
+                "total", allCorrected.getTotalCount(),
+                errors.values().stream().mapToLong(LongAdder::sum).sum(),
+                millis(allCorrected, 50), millis(allCorrected, 99), millis(allCorrected, 99.9),
+                allCorrected.getMaxValue() / 1000.0);
+        out.printf("%nVazão obtida: %.1f req/s em %.1f s%n%n", allCorrected.getTotalCount() / seconds, seconds);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static long clamp(long micros) {
+        return Math.min(Math.max(micros, 1), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    private static Histogram histogram() {
+        return new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    }
+}
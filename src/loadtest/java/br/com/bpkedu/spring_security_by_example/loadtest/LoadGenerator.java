@@ -0,0 +1,168 @@
+package br.com.bpkedu.spring_security_by_example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gerador de carga em malha aberta: as requisições são disparadas em
+ * intervalos fixos, independentemente de as anteriores já terem respondido.
+ */
+final class LoadGenerator implements AutoCloseable {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+    private final Workload workload;
+    private final List<Long> productIds;
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final Random random = new Random(42);
+
+    private String adminToken;
+    private String userToken;
+    private String sessionCookie;
+
+    LoadGenerator(URI baseUri, Workload workload, List<Long> productIds) {
+        this.baseUri = baseUri;
+        this.workload = workload;
+        this.productIds = productIds;
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Obtém os tokens JWT de admin e user e uma sessão de form login.
+     */
+    void prepare() throws IOException, InterruptedException {
+        adminToken = login("admin", "admin");
+        userToken = login("user", "user");
+
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(baseUri.resolve("/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=user&password=user"))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        sessionCookie = response.headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("SESSION="))
+                .map(cookie -> cookie.substring(0, cookie.indexOf(';') > 0 ? cookie.indexOf(';') : cookie.length()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Form login não retornou o cookie SESSION"));
+    }
+
+    LatencyReport run(int requestsPerSecond, Duration duration) throws InterruptedException {
+        LatencyReport report = new LatencyReport();
+        AtomicLong inFlight = new AtomicLong();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long durationNanos = duration.toNanos();
+        long start = System.nanoTime();
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart - start >= durationNanos) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Workload.Operation operation = workload.next(random);
+            HttpRequest request = request(operation);
+            long sent = System.nanoTime();
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        boolean ok = error == null && response.statusCode() >= 200 && response.statusCode() < 300;
+                        report.record(operation, intendedStart, sent, System.nanoTime(), ok);
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    private HttpRequest request(Workload.Operation operation) {
+        return switch (operation) {
+            case LOGIN -> jsonPost("/api/auth/login", random.nextBoolean()
+                    ? "{\"username\":\"admin\",\"password\":\"admin\"}"
+                    : "{\"username\":\"user\",\"password\":\"user\"}", null);
+            case LIST -> get("/api/products").header("Authorization", "Bearer " + userToken).build();
+            case GET -> get("/api/products/" + randomProductId())
+                    .header("Authorization", "Bearer " + userToken).build();
+            case WRITE -> random.nextBoolean()
+                    ? jsonPost("/api/products", productJson("Novo produto"), adminToken)
+                    : HttpRequest.newBuilder(baseUri.resolve("/api/products/" + randomProductId()))
+                            .timeout(REQUEST_TIMEOUT)
+                            .header("Content-Type", "application/json")
+                            .header("Authorization", "Bearer " + adminToken)
+                            .PUT(HttpRequest.BodyPublishers.ofString(productJson("Produto atualizado")))
+                            .build();
+            case HOME -> get("/home").header("Cookie", sessionCookie).build();
+            case LOGIN_PAGE -> get("/login").build();
+        };
+    }
+
+    private String login(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                jsonPost("/api/auth/login",
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}", null),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login de " + username + " falhou: " + response.statusCode());
+        }
+        return matcher.group(1);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT).GET();
+    }
+
+    private HttpRequest jsonPost(String path, String body, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private long randomProductId() {
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    private String productJson(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"Carga\",\"price\":"
+                + (random.nextInt(100, 100_000) / 100.0) + ",\"quantity\":" + random.nextInt(1, 100) + "}";
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.bpkedu.spring_security_by_example.loadtest;
+
+import br.com.bpkedu.spring_security_by_example.SpringSecurityByExampleApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Teste de carga ponta a ponta: sobe a aplicação em uma porta aleatória de
+ * 127.0.0.1, popula o catálogo (via {@code app.seed.products}) e executa a
+ * carga configurada em taxa fixa.
+ * <p>
+ * Execução: {@code ./mvnw -Ploadtest verify -Dloadtest.rps=500 -Dloadtest.duration=60}
+ * <ul>
+ *     <li>{@code loadtest.rps}: requisições por segundo (padrão 200)</li>
+ *     <li>{@code loadtest.duration} / {@code loadtest.warmup}: duração da medição e do aquecimento, em segundos</li>
+ *     <li>{@code loadtest.products}: produtos criados antes da carga</li>
+ *     <li>{@code loadtest.mix}: pesos das operações, ex. {@code login:5,list:20,get:50,write:5,home:15,loginPage:5}</li>
+ *     <li>{@code loadtest.profiles}: perfis Spring da aplicação sob teste (ex. {@code prod})</li>
+ * </ul>
+ */
+public final class LoadTestMain {
+
+    private static final String DEFAULT_MIX = "login:5,list:20,get:50,write:5,home:15,loginPage:5";
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rps = Integer.getInteger("loadtest.rps", 200);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+        int productCount = Integer.getInteger("loadtest.products", 1000);
+        String mix = System.getProperty("loadtest.mix", DEFAULT_MIX);
+        String profiles = System.getProperty("loadtest.profiles", "");
+
+        try (ConfigurableApplicationContext context = startApplication(profiles, productCount)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<Long> productIds = context.getBean(JdbcTemplate.class)
+                    .queryForList("SELECT id FROM product", Long.class);
+
+            try (LoadGenerator generator = new LoadGenerator(URI.create("http://127.0.0.1:" + port),
+                    Workload.parse(mix), productIds)) {
+                generator.prepare();
+
+                System.out.printf("Aquecimento: %d req/s por %d s%n", rps, warmup.toSeconds());
+                generator.run(rps, warmup);
+
+                System.out.printf("Medição: %d req/s por %d s (mix %s)%n", rps, duration.toSeconds(), mix);
+                LatencyReport report = generator.run(rps, duration);
+                report.print(System.out);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(String profiles, int productCount) {
+        return new SpringApplicationBuilder(SpringSecurityByExampleApplication.class)
+                .profiles(profiles.isBlank() ? new String[0] : profiles.split(","))
+                .run("--server.address=127.0.0.1",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest",
+                        "--spring.jpa.show-sql=false",
+                        "--app.seed.products=" + productCount,
+                        "--logging.level.org.springframework.security=WARN",
+                        "--logging.level.br.com.bpkedu.spring_security_by_example=INFO",
+                        "--security.audit.file=target/loadtest/security-audit.log");
+    }
+}
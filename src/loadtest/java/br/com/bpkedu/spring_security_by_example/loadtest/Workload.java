@@ -0,0 +1,61 @@
+package br.com.bpkedu.spring_security_by_example.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mix de operações com pesos, sorteado a cada requisição.
+ */
+final class Workload {
+
+    enum Operation {
+        LOGIN("login"),
+        LIST("list"),
+        GET("get"),
+        WRITE("write"),
+        HOME("home"),
+        LOGIN_PAGE("loginPage");
+
+        final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Operação desconhecida no mix: " + key);
+        }
+    }
+
+    private final Operation[] table;
+
+    private Workload(Operation[] table) {
+        this.table = table;
+    }
+
+    static Workload parse(String mix) {
+        List<Operation> table = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Operation operation = Operation.of(parts[0].trim());
+            int weight = Integer.parseInt(parts[1].trim());
+            for (int i = 0; i < weight; i++) {
+                table.add(operation);
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("Mix vazio: " + mix);
+        }
+        return new Workload(table.toArray(new Operation[0]));
+    }
+
+    Operation next(Random random) {
+        return table[random.nextInt(table.length)];
+    }
+}
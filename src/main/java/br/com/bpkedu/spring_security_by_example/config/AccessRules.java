@@ -0,0 +1,137 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.service.RoleAuthorities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Todas as regras de autorização por caminho e método, em um só lugar.
+ * <p>
+ * As regras de cada cadeia são compiladas na inicialização em um
+ * {@link AuthorizationManager} que percorre os matchers em ordem (a primeira que
+ * casar decide) e compara a máscara de papéis do principal com a exigida, sem SpEL
+ * nem interceptadores de método. As regras efetivas são listadas no log quando a
+ * aplicação fica pronta.
+ */
+@Component
+public class AccessRules implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessRules.class);
+
+    public enum Chain { ACTUATOR, API, WEB }
+
+    /**
+     * Exigência de uma regra: acesso livre, qualquer usuário autenticado ou um dos papéis da máscara.
+     */
+    public record Access(Kind kind, int roleMask, String description) {
+
+        enum Kind { PERMIT_ALL, AUTHENTICATED, ANY_ROLE }
+
+        static final Access PERMIT_ALL = new Access(Kind.PERMIT_ALL, 0, "permitAll");
+        static final Access AUTHENTICATED = new Access(Kind.AUTHENTICATED, 0, "authenticated");
+
+        static Access hasRole(String authority) {
+            return new Access(Kind.ANY_ROLE, RoleAuthorities.mask(List.of(RoleAuthorities.authority(authority))),
+                    "hasRole(" + authority.substring("ROLE_".length()) + ")");
+        }
+
+        boolean isGranted(Authentication authentication) {
+            if (kind == Kind.PERMIT_ALL) {
+                return true;
+            }
+            if (authentication == null || !authentication.isAuthenticated()
+                    || authentication instanceof AnonymousAuthenticationToken) {
+                return false;
+            }
+            return kind == Kind.AUTHENTICATED || (RoleAuthorities.mask(authentication.getAuthorities()) & roleMask) != 0;
+        }
+    }
+
+    public record AccessRule(Chain chain, String method, String pattern, RequestMatcher matcher, Access access) {
+    }
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final List<AccessRule> rules = new ArrayList<>();
+
+    public AccessRules() {
+        Access admin = Access.hasRole(RoleAuthorities.ADMIN);
+
+        add(Chain.ACTUATOR, "*", "/actuator/health/**", EndpointRequest.to(HealthEndpoint.class), Access.PERMIT_ALL);
+        add(Chain.ACTUATOR, "*", "/actuator/**", AnyRequestMatcher.INSTANCE, admin);
+
+        add(Chain.API, null, "/api/auth/**", Access.PERMIT_ALL);
+        add(Chain.API, null, "/api/admin/**", admin);
+        add(Chain.API, HttpMethod.POST, "/api/products", admin);
+        add(Chain.API, HttpMethod.PUT, "/api/products/{id}", admin);
+        add(Chain.API, HttpMethod.DELETE, "/api/products/{id}", admin);
+        add(Chain.API, "*", "/api/**", AnyRequestMatcher.INSTANCE, Access.AUTHENTICATED);
+
+        add(Chain.WEB, null, "/h2-console/**", Access.PERMIT_ALL);
+        add(Chain.WEB, null, "/login", Access.PERMIT_ALL);
+        add(Chain.WEB, null, "/admin/**", admin);
+        add(Chain.WEB, "*", "/**", AnyRequestMatcher.INSTANCE, Access.AUTHENTICATED);
+    }
+
+    private void add(Chain chain, HttpMethod method, String pattern, Access access) {
+        RequestMatcher matcher = method != null
+                ? PathPatternRequestMatcher.withDefaults().matcher(method, pattern)
+                : PathPatternRequestMatcher.withDefaults().matcher(pattern);
+        add(chain, method != null ? method.name() : "*", pattern, matcher, access);
+    }
+
+    private void add(Chain chain, String method, String pattern, RequestMatcher matcher, Access access) {
+        rules.add(new AccessRule(chain, method, pattern, matcher, access));
+    }
+
+    public List<AccessRule> rules() {
+        return List.copyOf(rules);
+    }
+
+    /**
+     * Compila as regras da cadeia em arrays de matchers e exigências.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> manager(Chain chain) {
+        List<AccessRule> chainRules = rules.stream().filter(rule -> rule.chain() == chain).toList();
+        RequestMatcher[] matchers = chainRules.stream().map(AccessRule::matcher).toArray(RequestMatcher[]::new);
+        Access[] accesses = chainRules.stream().map(AccessRule::access).toArray(Access[]::new);
+
+        return (Supplier<Authentication> authentication, RequestAuthorizationContext context) -> {
+            for (int i = 0; i < matchers.length; i++) {
+                if (matchers[i].matches(context.getRequest())) {
+                    return accesses[i].isGranted(authentication.get()) ? GRANTED : DENIED;
+                }
+            }
+            return DENIED;
+        };
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        StringBuilder report = new StringBuilder("Regras de autorização efetivas (a primeira que casar decide):");
+        for (AccessRule rule : rules) {
+            report.append(String.format("%n  %-8s %-6s %-24s -> %s",
+                    rule.chain(), rule.method(), rule.pattern(), rule.access().description()));
+        }
+        log.info(report.toString());
+    }
+}
@@ -1,6 +1,13 @@
 package br.com.bpkedu.spring_security_by_example.config;
 
+import br.com.bpkedu.spring_security_by_example.service.LoginAttemptService;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService.AuthFailureReason;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService.FilterOutcome;
+import br.com.bpkedu.spring_security_by_example.service.ReferenceTokenService;
+import br.com.bpkedu.spring_security_by_example.service.SecurityAuditService;
 import br.com.bpkedu.spring_security_by_example.service.TokenService;
+import br.com.bpkedu.spring_security_by_example.service.TokenService.TokenClaims;
 import br.com.bpkedu.spring_security_by_example.service.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -15,37 +22,107 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
     private final UserDetailsServiceImpl userDetailsService;
+    private final MetricsService metricsService;
+    private final SecurityAuditService auditService;
+    private final ReferenceTokenService referenceTokenService;
+    private final LoginAttemptService loginAttemptService;
 
-    public JwtAuthenticationFilter(TokenService tokenService, UserDetailsServiceImpl userDetailsService) {
+    public JwtAuthenticationFilter(TokenService tokenService, UserDetailsServiceImpl userDetailsService,
+                                   MetricsService metricsService, SecurityAuditService auditService,
+                                   ReferenceTokenService referenceTokenService, LoginAttemptService loginAttemptService) {
         this.tokenService = tokenService;
         this.userDetailsService = userDetailsService;
+        this.metricsService = metricsService;
+        this.auditService = auditService;
+        this.referenceTokenService = referenceTokenService;
+        this.loginAttemptService = loginAttemptService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Endpoints do actuator possuem cadeia de segurança própria
+        return request.getServletPath().startsWith("/actuator/");
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        long start = System.nanoTime();
+        FilterOutcome outcome = FilterOutcome.ANONYMOUS;
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenService.validateToken(jwt)) {
-                String username = tokenService.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (StringUtils.hasText(jwt) && ReferenceTokenService.isReferenceToken(jwt)) {
+                // Token de referência: uma consulta ao índice, sem verificar assinatura nem carregar o usuário
+                Optional<ReferenceTokenService.Principal> principal = referenceTokenService.resolve(jwt);
+                if (principal.isPresent() && loginAttemptService.isBlocked(principal.get().username())) {
+                    // Bloqueio por tentativas vale também para tokens já emitidos (desabilitado é conferido no banco)
+                    metricsService.authFailure(AuthFailureReason.LOCKED);
+                    auditService.tokenRejected(request);
+                    outcome = FilterOutcome.REJECTED;
+                } else if (principal.isPresent()) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            principal.get().username(), null, principal.get().authorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    outcome = FilterOutcome.AUTHENTICATED;
+                } else {
+                    metricsService.authFailure(AuthFailureReason.TOKEN_INVALID);
+                    auditService.tokenRejected(request);
+                    outcome = FilterOutcome.REJECTED;
+                }
+            } else if (StringUtils.hasText(jwt)) {
+                Optional<TokenClaims> claims = tokenService.parseToken(jwt);
+                if (claims.isPresent() && claims.get().hasAuthorities()) {
+                    // Formato compacto: papéis do claim r, sem carregar o usuário do banco
+                    String username = claims.get().username();
+                    if (loginAttemptService.isBlocked(username)) {
+                        metricsService.authFailure(AuthFailureReason.LOCKED);
+                        auditService.tokenRejected(request);
+                        outcome = FilterOutcome.REJECTED;
+                    } else {
+                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                                username, null, claims.get().authorities());
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        outcome = FilterOutcome.AUTHENTICATED;
+                    }
+                } else if (claims.isPresent()) {
+                    UserDetails userDetails = userDetailsService.loadUserByUsername(claims.get().username());
+
+                    if (userDetails.isEnabled()) {
+                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                                userDetails, null, userDetails.getAuthorities());
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        outcome = FilterOutcome.AUTHENTICATED;
+                    } else {
+                        // Usuário desabilitado após a emissão do token
+                        metricsService.authFailure(AuthFailureReason.DISABLED);
+                        auditService.tokenRejected(request);
+                        outcome = FilterOutcome.REJECTED;
+                    }
+                } else {
+                    metricsService.authFailure(AuthFailureReason.TOKEN_INVALID);
+                    auditService.tokenRejected(request);
+                    outcome = FilterOutcome.REJECTED;
+                }
             }
         } catch (Exception ex) {
+            outcome = FilterOutcome.ERROR;
             logger.error("Could not set user authentication in security context", ex);
         }
+        metricsService.recordJwtFilter(outcome, start);
 
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,69 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.service.LoginAttemptService;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * {@link DaoAuthenticationProvider} que rejeita contas bloqueadas e origens acima do
+ * limite de falhas antes de consultar o banco ou executar o {@link PasswordEncoder},
+ * mantendo o custo de CPU limitado durante ataques de força bruta / password spraying.
+ * <p>
+ * Usuários inexistentes são tratados à parte (sem UPDATE no banco), mas o cliente
+ * continua recebendo o mesmo {@link BadCredentialsException} de uma senha errada.
+ * Acima do limite global de falhas, a existência do username é conferida antes: um
+ * inexistente é recusado sem o hash de proteção contra timing attack, enquanto
+ * usuários reais continuam autenticando normalmente.
+ */
+public class LoginAttemptAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final LoginAttemptService loginAttemptService;
+
+    public LoginAttemptAuthenticationProvider(PasswordEncoder passwordEncoder, LoginAttemptService loginAttemptService) {
+        super(passwordEncoder);
+        this.loginAttemptService = loginAttemptService;
+        // O provider distingue o usuário inexistente e converte para BadCredentialsException
+        setHideUserNotFoundExceptions(false);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        String source = sourceOf(authentication);
+        if (loginAttemptService.isBlocked(username)) {
+            throw new LockedException("Usuário temporariamente bloqueado");
+        }
+        if (loginAttemptService.isThrottled(source)) {
+            throw new LockedException("Muitas tentativas de login, tente novamente mais tarde");
+        }
+
+        try {
+            if (loginAttemptService.isUnderAttack()) {
+                // Sob ataque o BCrypt de um username inexistente é puro custo
+                getUserDetailsService().loadUserByUsername(username);
+            }
+            Authentication result = super.authenticate(authentication);
+            loginAttemptService.loginSucceeded(username);
+            return result;
+        } catch (UsernameNotFoundException ex) {
+            loginAttemptService.unknownUserFailed(username, source);
+            throw new BadCredentialsException(messages.getMessage(
+                    "AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+        } catch (BadCredentialsException ex) {
+            loginAttemptService.loginFailed(username, source);
+            throw ex;
+        }
+    }
+
+    private static String sourceOf(Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details
+                ? details.getRemoteAddress()
+                : null;
+    }
+}
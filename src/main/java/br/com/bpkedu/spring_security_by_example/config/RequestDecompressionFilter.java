@@ -0,0 +1,248 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Aceita corpos comprimidos ({@code Content-Encoding: gzip} ou {@code deflate}) nos
+ * caminhos de escrita em lote de {@code app.request-decompression.paths}.
+ * <p>
+ * O corpo é descomprimido sob demanda, enquanto o controller lê o stream, e o total
+ * descomprimido é limitado para barrar "zip bombs": por caminho em
+ * {@code app.request-decompression.path-limits} ({@code padrão=tamanho}) e, nos demais,
+ * por {@code app.request-decompression.max-size}. Passar do limite responde 413.
+ * <p>
+ * A leitura é sempre bloqueante: o corpo descomprimido não suporta {@link ReadListener}.
+ */
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<String> paths;
+    private final long maxBytes;
+    private final Map<String, Long> pathLimits = new LinkedHashMap<>();
+
+    public RequestDecompressionFilter(
+            @Value("${app.request-decompression.paths:/api/admin/users/bulk,/api/products/batch}") List<String> paths,
+            @Value("${app.request-decompression.max-size:256MB}") DataSize maxSize,
+            @Value("${app.request-decompression.path-limits:/api/products/batch=4MB}") List<String> pathLimits) {
+        this.paths = paths;
+        this.maxBytes = maxSize.toBytes();
+        for (String limit : pathLimits) {
+            int separator = limit.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Limite de descompressão inválido (esperado padrão=tamanho): " + limit);
+            }
+            this.pathLimits.put(limit.substring(0, separator).trim(),
+                    DataSize.parse(limit.substring(separator + 1).trim()).toBytes());
+        }
+    }
+
+    /**
+     * Corpo descomprimido maior que o limite do caminho.
+     */
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public static class BodyTooLargeException extends IOException {
+
+        public BodyTooLargeException(long maxBytes) {
+            super("Corpo descomprimido excede o limite de " + maxBytes + " bytes");
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(HttpHeaders.CONTENT_ENCODING) == null) {
+            return true;
+        }
+        String path = request.getServletPath();
+        for (String pattern : paths) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim().toLowerCase();
+        if (encoding.equals("identity")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        InputStream body;
+        try {
+            body = switch (encoding) {
+                case "gzip", "x-gzip" -> new GZIPInputStream(request.getInputStream(), 8192);
+                case "deflate" -> new InflaterInputStream(request.getInputStream());
+                default -> null;
+            };
+        } catch (ZipException | EOFException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Corpo comprimido inválido");
+            return;
+        }
+        if (body == null) {
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Content-Encoding não suportado: " + encoding);
+            return;
+        }
+        filterChain.doFilter(new DecompressedRequest(request, body, maxBytesFor(request.getServletPath())), response);
+    }
+
+    private long maxBytesFor(String path) {
+        for (Map.Entry<String, Long> limit : pathLimits.entrySet()) {
+            if (PATH_MATCHER.match(limit.getKey(), path)) {
+                return limit.getValue();
+            }
+        }
+        return maxBytes;
+    }
+
+    private static final class DecompressedRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        DecompressedRequest(HttpServletRequest request, InputStream body, long maxBytes) {
+            super(request);
+            this.inputStream = new LimitedInputStream(body, maxBytes);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+                reader = new BufferedReader(new InputStreamReader(inputStream, charset));
+            }
+            return reader;
+        }
+
+        // O tamanho e a codificação originais não valem para o corpo descomprimido
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHiddenHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHiddenHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !isHiddenHeader(name))
+                    .toList());
+        }
+
+        private static boolean isHiddenHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private static final class LimitedInputStream extends ServletInputStream {
+
+        private final InputStream delegate;
+        private final long maxBytes;
+        private long read;
+        private boolean finished;
+
+        LimitedInputStream(InputStream delegate, long maxBytes) {
+            this.delegate = delegate;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            count(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = delegate.read(buffer, offset, length);
+            count(n);
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            if (n < 0) {
+                finished = true;
+                return;
+            }
+            read += n;
+            if (read > maxBytes) {
+                throw new BodyTooLargeException(maxBytes);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            // Descomprimir exige ler o stream original de forma bloqueante
+            throw new IllegalStateException("Leitura assíncrona não suportada para corpos comprimidos");
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.service.CatalogVersion;
+import br.com.bpkedu.spring_security_by_example.service.ResponseByteCache;
+import br.com.bpkedu.spring_security_by_example.service.ResponseByteCache.Entry;
+import br.com.bpkedu.spring_security_by_example.service.ResponseByteCache.Key;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serve as leituras quentes do catálogo a partir do {@link ResponseByteCache}.
+ * <p>
+ * Roda depois da cadeia do Spring Security (a autorização já foi feita) e só
+ * atua em GETs dos caminhos de {@code app.response-cache.paths}, cujas respostas
+ * não dependem do usuário. Em um acerto o corpo guardado é escrito direto no
+ * response, sem passar pelo Spring MVC nem pelo Jackson; em uma falta a resposta
+ * é capturada, comprimida com gzip quando o cliente aceita, guardada e enviada.
+ * <p>
+ * A chave usa o tipo negociado a partir do Accept (e não o header cru), então
+ * variações do mesmo Accept compartilham a entrada. Requisições com parâmetros fora
+ * de {@code app.response-cache.query-params} passam direto, sem cache.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    /**
+     * Tipos produzidos pela API, na ordem de preferência do Spring MVC (JSON sem Accept).
+     */
+    private static final List<MediaType> PRODUCIBLE = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile"));
+
+    private final ResponseByteCache cache;
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final List<String> paths;
+    private final Set<String> queryParams;
+    private final boolean gzip;
+    private final long gzipMinBytes;
+
+    public ResponseCacheFilter(ResponseByteCache cache, CatalogVersion catalogVersion,
+                               @Value("${app.response-cache.enabled:true}") boolean enabled,
+                               @Value("${app.response-cache.paths:/api/products,/api/products/*}") List<String> paths,
+                               @Value("${app.response-cache.query-params:ids}") List<String> queryParams,
+                               @Value("${app.response-cache.gzip:true}") boolean gzip,
+                               @Value("${app.response-cache.gzip-min-size:1KB}") DataSize gzipMinSize) {
+        this.cache = cache;
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        this.paths = paths;
+        this.queryParams = Set.copyOf(queryParams);
+        this.gzip = gzip;
+        this.gzipMinBytes = gzipMinSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getServletPath();
+        for (String pattern : paths) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        MediaType contentType = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        if (contentType == null || !queryParams.containsAll(request.getParameterMap().keySet())) {
+            // Accept inválido (o MVC responde 406) ou parâmetro desconhecido: não vira entrada do cache
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean acceptsGzip = gzip && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // O tipo negociado faz parte da chave: o mesmo caminho pode ser servido em JSON, CBOR ou Smile
+        Key key = new Key(request.getServletPath(), request.getQueryString(), contentType.toString(), acceptsGzip);
+
+        Entry cached = cache.get(key);
+        if (cached != null) {
+            write(response, cached);
+            return;
+        }
+
+        // Versão lida antes da consulta: uma escrita concorrente torna a entrada descartável
+        long version = catalogVersion.current();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || wrapper.getContentSize() == 0
+                || !producedType(wrapper.getContentType(), contentType)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        byte[] body = wrapper.getContentAsByteArray();
+        boolean compress = acceptsGzip && body.length >= gzipMinBytes;
+        Entry entry = new Entry(compress ? gzip(body) : body, wrapper.getContentType(), compress, version);
+        cache.put(key, entry);
+
+        wrapper.resetBuffer();
+        write(response, entry);
+    }
+
+    private static void write(HttpServletResponse response, Entry entry) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (entry.gzipped()) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(entry.body().length);
+        // Uma única cópia: do array guardado para o buffer do conector
+        response.getOutputStream().write(entry.body());
+    }
+
+    /**
+     * Tipo que a API vai produzir para esse Accept: o primeiro tipo produzido compatível com
+     * o tipo aceito de maior q, ignorando os recusados com q=0. Null se nenhum for aceito.
+     */
+    static MediaType negotiate(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return PRODUCIBLE.get(0);
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        // Ordenação estável: empates de q mantêm a ordem do header
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType requested : accepted) {
+            if (requested.getQualityValue() == 0) {
+                break;
+            }
+            for (MediaType producible : PRODUCIBLE) {
+                if (requested.isCompatibleWith(producible) && !refused(accepted, producible)) {
+                    return producible;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean refused(List<MediaType> accepted, MediaType producible) {
+        for (MediaType requested : accepted) {
+            if (requested.getQualityValue() == 0 && requested.equalsTypeAndSubtype(producible)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Garante que a chave corresponde ao que o MVC de fato produziu; se a negociação acima
+     * divergir, a resposta é enviada normalmente e não é guardada.
+     */
+    private static boolean producedType(String responseType, MediaType negotiated) {
+        try {
+            return responseType != null && MediaType.parseMediaType(responseType).equalsTypeAndSubtype(negotiated);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Accept-Encoding com q-values: {@code gzip;q=0} recusa o gzip, e {@code *} só vale
+     * quando gzip não aparece explicitamente.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality(parts));
+            } else if (coding.equals("*")) {
+                any = quality(parts);
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.startsWith("q=") || parameter.startsWith("Q="))) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // q inválido: trata como recusa
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed, 8192)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
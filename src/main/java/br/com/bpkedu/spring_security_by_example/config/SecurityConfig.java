@@ -1,31 +1,55 @@
 package br.com.bpkedu.spring_security_by_example.config;
 
+import br.com.bpkedu.spring_security_by_example.config.AccessRules.Chain;
+import br.com.bpkedu.spring_security_by_example.service.LoginAttemptService;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService;
 import br.com.bpkedu.spring_security_by_example.service.UserDetailsServiceImpl;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationEventPublisher;
+import org.springframework.security.authorization.SpringAuthorizationEventPublisher;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserDetailsServiceImpl userDetailsService;
+    private final AccessRules accessRules;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, UserDetailsServiceImpl userDetailsService) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, UserDetailsServiceImpl userDetailsService,
+                          AccessRules accessRules) {
         this.jwtAuthFilter = jwtAuthFilter;
         this.userDetailsService = userDetailsService;
+        this.accessRules = accessRules;
+    }
+
+    @Bean
+    @Order(0)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(EndpointRequest.toAnyEndpoint())
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth.anyRequest().access(accessRules.manager(Chain.ACTUATOR)))
+            .httpBasic(Customizer.withDefaults());
+
+        return http.build();
     }
 
     @Bean
@@ -35,11 +59,7 @@ public class SecurityConfig {
             .securityMatcher("/api/**")
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-            .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/admin/**").hasRole("ADMIN")
-                .anyRequest().authenticated()
-            )
+            .authorizeHttpRequests(auth -> auth.anyRequest().access(accessRules.manager(Chain.API)))
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -47,24 +67,27 @@ public class SecurityConfig {
 
     @Bean
     @Order(2)
-    public SecurityFilterChain webFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain webFilterChain(HttpSecurity http,
+                                              StoredSecurityContextRepository securityContextRepository) throws Exception {
+        SimpleUrlAuthenticationFailureHandler failureHandler = new SimpleUrlAuthenticationFailureHandler("/login?error=true");
+        failureHandler.setAllowSessionCreation(false);
+
         http
             .securityMatcher("/**")
             .csrf(csrf -> csrf.disable())
             .headers(headers -> headers.frameOptions().disable())
-            .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/h2-console/**").permitAll()
-                .requestMatchers("/login").permitAll()
-                .requestMatchers("/admin/**").hasRole("ADMIN")
-                .anyRequest().authenticated()
-            )
+            // Contexto no SessionStore compartilhado em vez da HttpSession do Tomcat
+            .securityContext(context -> context.securityContextRepository(securityContextRepository))
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth.anyRequest().access(accessRules.manager(Chain.WEB)))
             .formLogin(form -> form
                 .loginPage("/login")
                 .defaultSuccessUrl("/home")
-                .failureUrl("/login?error=true")
+                .failureHandler(failureHandler)
                 .permitAll()
             )
             .logout(logout -> logout
+                .addLogoutHandler(securityContextRepository)
                 .logoutSuccessUrl("/login")
                 .permitAll()
             );
@@ -78,7 +101,22 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder,
+                                                         LoginAttemptService loginAttemptService) {
+        LoginAttemptAuthenticationProvider provider =
+                new LoginAttemptAuthenticationProvider(passwordEncoder, loginAttemptService);
+        provider.setUserDetailsService(userDetailsService);
+        return provider;
+    }
+
+    @Bean
+    public AuthorizationEventPublisher authorizationEventPublisher(ApplicationEventPublisher publisher) {
+        // Publica AuthorizationDeniedEvent para o log de auditoria
+        return new SpringAuthorizationEventPublisher(publisher);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MetricsService metricsService) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), metricsService);
     }
 }
\ No newline at end of file
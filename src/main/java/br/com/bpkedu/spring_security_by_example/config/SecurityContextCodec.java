@@ -0,0 +1,69 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.service.RoleAuthorities;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Formato binário compacto do {@code SecurityContext} guardado no {@code SessionStore}.
+ * <p>
+ * Só o que as páginas usam é persistido: versão, username e authorities. Uma sessão
+ * típica ocupa algumas dezenas de bytes, contra alguns KB da serialização Java do
+ * {@code UsernamePasswordAuthenticationToken} com o {@code UserDetails} completo.
+ */
+final class SecurityContextCodec {
+
+    private static final byte VERSION = 1;
+
+    private SecurityContextCodec() {
+    }
+
+    static byte[] encode(Authentication authentication) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+            out.writeByte(VERSION);
+            out.writeUTF(authentication.getName());
+            out.writeByte(authorities.size());
+            for (GrantedAuthority authority : authorities) {
+                out.writeUTF(authority.getAuthority());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return a autenticação decodificada ou {@code null} se o formato não for reconhecido
+     */
+    static Authentication decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            String username = in.readUTF();
+            int count = in.readUnsignedByte();
+            List<GrantedAuthority> authorities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                authorities.add(RoleAuthorities.authority(in.readUTF()));
+            }
+            User principal = new User(username, "", authorities);
+            return UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
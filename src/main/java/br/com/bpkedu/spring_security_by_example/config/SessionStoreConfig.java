@@ -0,0 +1,47 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.repository.JdbcReferenceTokenStore;
+import br.com.bpkedu.spring_security_by_example.repository.JdbcSessionStore;
+import br.com.bpkedu.spring_security_by_example.repository.NearCacheSessionStore;
+import br.com.bpkedu.spring_security_by_example.repository.ReferenceTokenStore;
+import br.com.bpkedu.spring_security_by_example.repository.SessionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+/**
+ * Sessões do form login no banco (tabela {@code security_sessions}), com cache
+ * local opcional para evitar uma consulta por requisição, e tokens de referência
+ * da API (tabela {@code reference_tokens}).
+ */
+@Configuration
+@EnableScheduling
+public class SessionStoreConfig {
+
+    @Bean
+    public SessionStore sessionStore(JdbcTemplate jdbcTemplate,
+                                     @Value("${app.session.near-cache.enabled:false}") boolean nearCacheEnabled,
+                                     @Value("${app.session.near-cache.ttl:5000}") long nearCacheTtl,
+                                     @Value("${app.session.near-cache.size:10000}") int nearCacheSize) {
+        SessionStore store = new JdbcSessionStore(jdbcTemplate);
+        return nearCacheEnabled ? new NearCacheSessionStore(store, nearCacheTtl, nearCacheSize) : store;
+    }
+
+    @Bean
+    public StoredSecurityContextRepository storedSecurityContextRepository(
+            SessionStore sessionStore,
+            @Value("${app.session.timeout:30m}") Duration timeout,
+            @Value("${app.session.cookie-name:SESSION}") String cookieName,
+            @Value("${app.session.cookie-secure:false}") boolean secureCookie) {
+        return new StoredSecurityContextRepository(sessionStore, timeout, cookieName, secureCookie);
+    }
+
+    @Bean
+    public ReferenceTokenStore referenceTokenStore(JdbcTemplate jdbcTemplate) {
+        return new JdbcReferenceTokenStore(jdbcTemplate);
+    }
+}
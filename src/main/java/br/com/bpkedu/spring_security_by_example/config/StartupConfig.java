@@ -0,0 +1,29 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.controller.AuthController;
+import br.com.bpkedu.spring_security_by_example.controller.ProductController;
+import br.com.bpkedu.spring_security_by_example.service.TokenService;
+import br.com.bpkedu.spring_security_by_example.service.UserDetailsServiceImpl;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Com {@code spring.main.lazy-initialization=true} (perfil prod) apenas os beans
+     * do caminho quente de autenticação e do catálogo continuam sendo criados na
+     * inicialização; os demais só quando forem usados pela primeira vez.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter hotPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                TokenService.class,
+                UserDetailsServiceImpl.class,
+                PasswordEncoder.class,
+                AuthController.class,
+                ProductController.class);
+    }
+}
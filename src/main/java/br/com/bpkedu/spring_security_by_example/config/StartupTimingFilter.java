@@ -0,0 +1,57 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reporta o tempo de inicialização e o tempo até a primeira requisição
+ * (ambos medidos desde o início da JVM), no log e na métrica
+ * {@code application.first.request.time}.
+ */
+@Component
+public class StartupTimingFilter extends OncePerRequestFilter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingFilter.class);
+
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    public StartupTimingFilter(MeterRegistry registry) {
+        TimeGauge.builder("application.first.request.time", firstRequestMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Tempo desde o início da JVM até a primeira requisição HTTP")
+                .register(registry);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("Aplicação pronta em {} ms ({} ms desde o início da JVM)",
+                event.getTimeTaken().toMillis(), ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (firstRequestMillis.get() < 0) {
+            long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+            if (firstRequestMillis.compareAndSet(-1, uptime)) {
+                log.info("Primeira requisição recebida {} ms após o início da JVM: {} {}",
+                        uptime, request.getMethod(), request.getRequestURI());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,171 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.repository.SessionStore;
+import br.com.bpkedu.spring_security_by_example.repository.SessionStore.StoredSession;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * {@link SecurityContextRepository} da cadeia de form login que substitui a
+ * {@code HttpSession} do Tomcat por um {@link SessionStore} compartilhado.
+ * <p>
+ * O navegador recebe apenas um id aleatório no cookie; qualquer nó consegue
+ * reconstruir o contexto a partir do store. Um novo id é gerado a cada login
+ * (proteção contra session fixation) e a expiração é deslizante: o store só é
+ * atualizado quando resta menos da metade do tempo de sessão.
+ */
+public class StoredSecurityContextRepository implements SecurityContextRepository, LogoutHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoredSecurityContextRepository.class);
+
+    private final SessionStore sessionStore;
+    private final long timeoutMillis;
+    private final String cookieName;
+    private final boolean secureCookie;
+    private final SecureRandom random = new SecureRandom();
+    private final SecurityContextHolderStrategy holderStrategy = SecurityContextHolder.getContextHolderStrategy();
+
+    public StoredSecurityContextRepository(SessionStore sessionStore, Duration timeout,
+                                           String cookieName, boolean secureCookie) {
+        this.sessionStore = sessionStore;
+        this.timeoutMillis = timeout.toMillis();
+        this.cookieName = cookieName;
+        this.secureCookie = secureCookie;
+    }
+
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+        return new DeferredSecurityContext() {
+            private SecurityContext context;
+            private boolean generated;
+
+            @Override
+            public SecurityContext get() {
+                if (context == null) {
+                    Authentication authentication = readAuthentication(request);
+                    generated = authentication == null;
+                    context = holderStrategy.createEmptyContext();
+                    context.setAuthentication(authentication);
+                }
+                return context;
+            }
+
+            @Override
+            public boolean isGenerated() {
+                get();
+                return generated;
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        return loadDeferredContext(requestResponseHolder.getRequest()).get();
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            // Contexto vazio (logout): remove a sessão atual
+            invalidate(request, response);
+            return;
+        }
+        sessionId(request).ifPresent(sessionStore::delete);
+
+        String id = newSessionId();
+        sessionStore.save(id, SecurityContextCodec.encode(authentication), System.currentTimeMillis() + timeoutMillis);
+        writeCookie(response, id, -1);
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return sessionId(request).flatMap(sessionStore::load).isPresent();
+    }
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        invalidate(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${app.session.cleanup-interval:60000}")
+    public void deleteExpiredSessions() {
+        int removed = sessionStore.deleteExpired(System.currentTimeMillis());
+        if (removed > 0) {
+            logger.debug("{} sessões expiradas removidas", removed);
+        }
+    }
+
+    private Authentication readAuthentication(HttpServletRequest request) {
+        Optional<StoredSession> session = sessionId(request).flatMap(sessionStore::load);
+        if (session.isEmpty()) {
+            return null;
+        }
+        StoredSession stored = session.get();
+        long now = System.currentTimeMillis();
+        if (stored.expiresAt() - now < timeoutMillis / 2) {
+            sessionStore.touch(stored.id(), now + timeoutMillis);
+        }
+        return SecurityContextCodec.decode(stored.data());
+    }
+
+    private void invalidate(HttpServletRequest request, HttpServletResponse response) {
+        Optional<String> id = sessionId(request);
+        if (id.isPresent()) {
+            sessionStore.delete(id.get());
+            writeCookie(response, "", 0);
+        }
+    }
+
+    private Optional<String> sessionId(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return Optional.empty();
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                return Optional.of(cookie.getValue());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private String newSessionId() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private void writeCookie(HttpServletResponse response, String value, long maxAgeSeconds) {
+        ResponseCookie cookie = ResponseCookie.from(cookieName, value)
+                .path("/")
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .maxAge(maxAgeSeconds)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
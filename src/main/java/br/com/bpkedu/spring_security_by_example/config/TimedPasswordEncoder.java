@@ -0,0 +1,36 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.service.MetricsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Decorator que mede o tempo de {@link PasswordEncoder#matches} do encoder delegado.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final MetricsService metricsService;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MetricsService metricsService) {
+        this.delegate = delegate;
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        metricsService.recordPasswordMatch(matches, start);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
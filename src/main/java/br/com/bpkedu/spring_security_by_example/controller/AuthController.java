@@ -2,6 +2,7 @@ package br.com.bpkedu.spring_security_by_example.controller;
 
 import br.com.bpkedu.spring_security_by_example.dto.AuthRequestDTO;
 import br.com.bpkedu.spring_security_by_example.dto.TokenDTO;
+import br.com.bpkedu.spring_security_by_example.service.ReferenceTokenService;
 import br.com.bpkedu.spring_security_by_example.service.TokenService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,14 +11,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -28,16 +35,27 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final TokenService tokenService;
+    private final ReferenceTokenService referenceTokenService;
 
-    public AuthController(AuthenticationManager authenticationManager, TokenService tokenService) {
+    /**
+     * Emite tokens de referência (opacos, revogáveis) em vez de JWTs.
+     */
+    private final boolean referenceTokens;
+
+    public AuthController(AuthenticationManager authenticationManager, TokenService tokenService,
+                          ReferenceTokenService referenceTokenService,
+                          @Value("${app.reference-token.enabled:false}") boolean referenceTokens) {
         this.authenticationManager = authenticationManager;
         this.tokenService = tokenService;
+        this.referenceTokenService = referenceTokenService;
+        this.referenceTokens = referenceTokens;
     }
 
     @PostMapping("/login")
     @Operation(
         summary = "Autenticar usuário",
-        description = "Autentica um usuário com suas credenciais e retorna um token JWT. " +
+        description = "Autentica um usuário com suas credenciais e retorna um token JWT " +
+                "(ou um token de referência, com app.reference-token.enabled=true). " +
                 "O token deve ser incluído no header Authorization das requisições subsequentes."
     )
     @ApiResponses(value = {
@@ -113,16 +131,42 @@ public class AuthController {
                         """
                     )
                 )
-            ) AuthRequestDTO loginRequest) {
+            ) AuthRequestDTO loginRequest,
+            HttpServletRequest request) {
         
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
-                loginRequest.getUsername(),
-                loginRequest.getPassword()
-            )
+        UsernamePasswordAuthenticationToken credentials = new UsernamePasswordAuthenticationToken(
+            loginRequest.getUsername(),
+            loginRequest.getPassword()
         );
+        // IP de origem, usado no limite de falhas por origem
+        credentials.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        Authentication authentication = authenticationManager.authenticate(credentials);
+
+        String token = referenceTokens
+                ? referenceTokenService.issue(authentication)
+                : tokenService.generateToken(authentication);
+        return ResponseEntity.ok(new TokenDTO(token, "Bearer"));
+    }
 
-        String jwt = tokenService.generateToken(authentication);
-        return ResponseEntity.ok(new TokenDTO(jwt, "Bearer"));
+    @PostMapping("/logout")
+    @Operation(
+        summary = "Revogar token",
+        description = "Revoga o token de referência enviado no header Authorization. " +
+                "JWTs não podem ser revogados e continuam válidos até expirar."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Token revogado"),
+        @ApiResponse(responseCode = "400", description = "Header ausente ou token não é de referência")
+    })
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (!StringUtils.hasText(authorization) || !authorization.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().build();
+        }
+        String token = authorization.substring(7);
+        if (!ReferenceTokenService.isReferenceToken(token)) {
+            return ResponseEntity.badRequest().build();
+        }
+        referenceTokenService.revoke(token);
+        return ResponseEntity.noContent().build();
     }
 } 
\ No newline at end of file
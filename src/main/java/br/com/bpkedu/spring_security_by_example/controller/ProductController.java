@@ -1,7 +1,15 @@
 package br.com.bpkedu.spring_security_by_example.controller;
 
 import br.com.bpkedu.spring_security_by_example.domain.Product;
+import br.com.bpkedu.spring_security_by_example.dto.ProductBatchDTO;
+import br.com.bpkedu.spring_security_by_example.dto.ProductBatchRequestDTO;
 import br.com.bpkedu.spring_security_by_example.repository.ProductRepository;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService.CoalescedLookup;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService.ProductOperation;
+import br.com.bpkedu.spring_security_by_example.service.ProductBatchService;
+import br.com.bpkedu.spring_security_by_example.service.ProductWriteService;
+import br.com.bpkedu.spring_security_by_example.service.SingleFlight;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,14 +20,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
@@ -28,9 +38,20 @@ import java.util.List;
 public class ProductController {
 
     private final ProductRepository productRepository;
+    private final ProductBatchService productBatchService;
+    private final MetricsService metricsService;
+    private final ProductWriteService productWriteService;
+    private final SingleFlight<Long, Optional<Product>> productLookups;
 
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository, ProductBatchService productBatchService,
+                             MetricsService metricsService, ProductWriteService productWriteService,
+                             @Value("${app.lookup.coalescing-timeout:5s}") Duration coalescingTimeout) {
         this.productRepository = productRepository;
+        this.productBatchService = productBatchService;
+        this.metricsService = metricsService;
+        this.productWriteService = productWriteService;
+        this.productLookups = new SingleFlight<>(coalescingTimeout,
+                () -> metricsService.coalescedCall(CoalescedLookup.PRODUCT));
     }
 
     @GetMapping
@@ -60,7 +81,74 @@ public class ProductController {
         )
     )
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        long start = System.nanoTime();
+        List<Product> products = productRepository.findAll();
+        metricsService.recordProductOperation(ProductOperation.LIST, true, start);
+        return products;
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(
+        summary = "Buscar vários produtos",
+        description = "Busca os produtos dos IDs informados (ex.: ?ids=1,2,3) em uma única consulta. " +
+                "IDs repetidos são ignorados e os inexistentes são listados em 'missing'. " +
+                "Acessível por qualquer usuário autenticado."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Produtos encontrados e IDs inexistentes",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = ProductBatchDTO.class),
+                examples = @ExampleObject(
+                    value = """
+                    {
+                      "products": [
+                        {
+                          "id": 1,
+                          "name": "Smartphone XYZ",
+                          "description": "Último modelo com 256GB",
+                          "price": 1999.90,
+                          "quantity": 50
+                        }
+                      ],
+                      "missing": [99]
+                    }
+                    """
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Nenhum ID ou IDs demais para uma única requisição")
+    })
+    public ResponseEntity<ProductBatchDTO> getProductsByIds(
+            @Parameter(description = "IDs dos produtos, separados por vírgula", example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        return findBatch(ids);
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+        summary = "Buscar vários produtos (POST)",
+        description = "Mesma busca do GET com ?ids=, para conjuntos de IDs grandes demais para a URL. " +
+                "Acessível por qualquer usuário autenticado."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Produtos encontrados e IDs inexistentes"),
+        @ApiResponse(responseCode = "400", description = "Nenhum ID ou IDs demais para uma única requisição")
+    })
+    public ResponseEntity<ProductBatchDTO> getProductsByIdsPost(@Valid @RequestBody ProductBatchRequestDTO request) {
+        return findBatch(request.getIds());
+    }
+
+    private ResponseEntity<ProductBatchDTO> findBatch(List<Long> ids) {
+        if (ids.isEmpty() || !productBatchService.isWithinLimit(ids)) {
+            return ResponseEntity.badRequest().build();
+        }
+        long start = System.nanoTime();
+        ProductBatchDTO batch = productBatchService.findByIds(ids);
+        metricsService.recordProductOperation(ProductOperation.BATCH_GET, batch.getMissing().isEmpty(), start);
+        return ResponseEntity.ok(batch);
     }
 
     @GetMapping("/{id}")
@@ -109,13 +197,15 @@ public class ProductController {
     public ResponseEntity<Product> getProductById(
             @Parameter(description = "ID do produto", example = "1")
             @PathVariable Long id) {
-        return productRepository.findById(id)
+        long start = System.nanoTime();
+        ResponseEntity<Product> response = productLookups.load(id, () -> productRepository.findById(id).map(Product::detachedCopy))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
+        metricsService.recordProductOperation(ProductOperation.GET, response.hasBody(), start);
+        return response;
     }
 
     @PostMapping
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(
         summary = "Criar produto",
         description = "Cria um novo produto. Requer role ADMIN."
@@ -203,17 +293,18 @@ public class ProductController {
                 )
             )
             @Valid @RequestBody Product product) {
-        Product savedProduct = productRepository.save(product);
+        long start = System.nanoTime();
+        Product savedProduct = productWriteService.create(product);
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
                 .path("/{id}")
                 .buildAndExpand(savedProduct.getId())
                 .toUri();
+        metricsService.recordProductOperation(ProductOperation.CREATE, true, start);
         return ResponseEntity.created(location).body(savedProduct);
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(
         summary = "Atualizar produto",
         description = "Atualiza um produto existente. Requer role ADMIN."
@@ -251,17 +342,16 @@ public class ProductController {
             @Parameter(description = "ID do produto", example = "1")
             @PathVariable Long id,
             @Valid @RequestBody Product product) {
-        return productRepository.findById(id)
-                .map(existingProduct -> {
-                    product.setId(id);
-                    Product updatedProduct = productRepository.save(product);
-                    return ResponseEntity.ok(updatedProduct);
-                })
+        long start = System.nanoTime();
+        ResponseEntity<Product> response = productWriteService.update(id, product)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
+        productLookups.forget(id);
+        metricsService.recordProductOperation(ProductOperation.UPDATE, response.hasBody(), start);
+        return response;
     }
 
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(
         summary = "Deletar produto",
         description = "Remove um produto. Requer role ADMIN."
@@ -283,11 +373,12 @@ public class ProductController {
     public ResponseEntity<Void> deleteProduct(
             @Parameter(description = "ID do produto", example = "1")
             @PathVariable Long id) {
-        return productRepository.findById(id)
-                .map(product -> {
-                    productRepository.delete(product);
-                    return ResponseEntity.ok().<Void>build();
-                })
-                .orElse(ResponseEntity.notFound().build());
+        long start = System.nanoTime();
+        ResponseEntity<Void> response = productWriteService.delete(id)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+        productLookups.forget(id);
+        metricsService.recordProductOperation(ProductOperation.DELETE, response.getStatusCode().is2xxSuccessful(), start);
+        return response;
     }
-} 
\ No newline at end of file
+}
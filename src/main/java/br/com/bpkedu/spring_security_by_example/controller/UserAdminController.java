@@ -0,0 +1,123 @@
+package br.com.bpkedu.spring_security_by_example.controller;
+
+import br.com.bpkedu.spring_security_by_example.dto.UserCreateDTO;
+import br.com.bpkedu.spring_security_by_example.dto.UserDTO;
+import br.com.bpkedu.spring_security_by_example.dto.UserUpdateDTO;
+import br.com.bpkedu.spring_security_by_example.service.UserProvisioningService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@Tag(name = "Usuários", description = "Gerenciamento de usuários (apenas ADMIN)")
+@SecurityRequirement(name = "bearerAuth")
+public class UserAdminController {
+
+    private final UserProvisioningService provisioningService;
+
+    public UserAdminController(UserProvisioningService provisioningService) {
+        this.provisioningService = provisioningService;
+    }
+
+    @PostMapping
+    @Operation(
+        summary = "Criar usuário",
+        description = "Cria um usuário. Requer role ADMIN."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Usuário criado com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+        @ApiResponse(responseCode = "409", description = "Username ou email já cadastrado")
+    })
+    public ResponseEntity<UserDTO> createUser(@Valid @RequestBody UserCreateDTO user) {
+        if (!provisioningService.isValidRole(user.getRole())) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (provisioningService.exists(user)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        UserDTO created;
+        try {
+            created = provisioningService.create(user);
+        } catch (DataIntegrityViolationException e) {
+            // Cadastro concorrente com o mesmo username/email entre o exists() e o INSERT
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(created.getId())
+                .toUri();
+        return ResponseEntity.created(location).body(created);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Criar usuários em lote",
+        description = "Recebe um usuário por linha (NDJSON) e devolve, também em NDJSON, o resultado de cada linha " +
+                "(CREATED, DUPLICATE, INVALID ou ERROR) à medida que os blocos são processados. Se a leitura falhar " +
+                "depois do primeiro bloco enviado (ex.: corpo acima do limite), a resposta termina com uma linha ERROR " +
+                "sem username. Requer role ADMIN."
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Resultados por linha",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+            examples = @ExampleObject(
+                value = """
+                {"line":1,"username":"maria","status":"CREATED","id":42,"processed":1}
+                {"line":2,"username":"joao","status":"DUPLICATE","message":"Username ou email já cadastrado","processed":2}
+                """
+            )
+        )
+    )
+    public void bulkCreateUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Resposta escrita diretamente: os resultados são enviados bloco a bloco durante o processamento
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        provisioningService.bulkCreate(request.getInputStream(), response.getOutputStream());
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(
+        summary = "Alterar usuário",
+        description = "Habilita/desabilita o usuário e/ou altera sua role. Requer role ADMIN."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Usuário atualizado"),
+        @ApiResponse(responseCode = "400", description = "Role inválida"),
+        @ApiResponse(responseCode = "404", description = "Usuário não encontrado")
+    })
+    public ResponseEntity<UserDTO> updateUser(
+            @Parameter(description = "ID do usuário", example = "1")
+            @PathVariable Long id,
+            @RequestBody UserUpdateDTO update) {
+        if (update.getRole() != null && !provisioningService.isValidRole(update.getRole())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return provisioningService.update(id, update)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
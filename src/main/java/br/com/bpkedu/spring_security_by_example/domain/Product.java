@@ -27,4 +27,17 @@ public class Product {
     private BigDecimal price;
     
     private Integer quantity;
-} 
\ No newline at end of file
+
+    /**
+     * Cópia fora do contexto de persistência, para ser compartilhada entre threads.
+     */
+    public Product detachedCopy() {
+        Product copy = new Product();
+        copy.id = id;
+        copy.name = name;
+        copy.description = description;
+        copy.price = price;
+        copy.quantity = quantity;
+        return copy;
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.bpkedu.spring_security_by_example.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Uma mutação de {@link Product} registrada no journal de alterações.
+ * <p>
+ * {@code sequence} e {@code timestamp} são atribuídos pelo journal no append; em
+ * {@link Type#DELETE} só o {@code productId} é preenchido.
+ */
+public record ProductChange(long sequence, long timestamp, Type type, long productId,
+                            String name, String description, BigDecimal price, Integer quantity) {
+
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    public static ProductChange created(Product product) {
+        return of(Type.CREATE, product);
+    }
+
+    public static ProductChange updated(Product product) {
+        return of(Type.UPDATE, product);
+    }
+
+    public static ProductChange deleted(long productId) {
+        return new ProductChange(-1, 0, Type.DELETE, productId, null, null, null, null);
+    }
+
+    public ProductChange withPosition(long sequence, long timestamp) {
+        return new ProductChange(sequence, timestamp, type, productId, name, description, price, quantity);
+    }
+
+    private static ProductChange of(Type type, Product product) {
+        return new ProductChange(-1, 0, type, product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getQuantity());
+    }
+}
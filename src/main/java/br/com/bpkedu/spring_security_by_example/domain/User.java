@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.io.Serializable;
+import java.time.Instant;
 
 @Entity
 @Table(name = "users", uniqueConstraints = {
@@ -41,6 +42,11 @@ public class User implements Serializable {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    @Column(nullable = false)
+    private int failedAttempts;
+
+    private Instant lockedUntil;
+
     // Construtores
     public User() {
     }
@@ -102,6 +108,34 @@ public class User implements Serializable {
         this.enabled = enabled;
     }
 
+    public int getFailedAttempts() {
+        return failedAttempts;
+    }
+
+    public void setFailedAttempts(int failedAttempts) {
+        this.failedAttempts = failedAttempts;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    /**
+     * Cópia fora do contexto de persistência, para ser compartilhada entre threads.
+     */
+    public User detachedCopy() {
+        User copy = new User(username, password, email, role);
+        copy.id = id;
+        copy.enabled = enabled;
+        copy.failedAttempts = failedAttempts;
+        copy.lockedUntil = lockedUntil;
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,25 @@
+package br.com.bpkedu.spring_security_by_example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de uma linha do cadastro em lote (uma linha NDJSON na resposta).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkUserResultDTO {
+
+    public enum Status { CREATED, DUPLICATE, INVALID, ERROR }
+
+    private long line;
+    private String username;
+    private Status status;
+    private Long id;
+    private String message;
+    private long processed;
+}
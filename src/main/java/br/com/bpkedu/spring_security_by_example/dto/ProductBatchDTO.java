@@ -0,0 +1,20 @@
+package br.com.bpkedu.spring_security_by_example.dto;
+
+import br.com.bpkedu.spring_security_by_example.domain.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado da busca em lote: produtos encontrados, na ordem pedida e sem
+ * repetições, e os IDs que não existem.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchDTO {
+    private List<Product> products;
+    private List<Long> missing;
+}
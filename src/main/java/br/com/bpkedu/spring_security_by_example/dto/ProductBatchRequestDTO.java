@@ -0,0 +1,16 @@
+package br.com.bpkedu.spring_security_by_example.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchRequestDTO {
+    @NotEmpty(message = "Informe ao menos um ID")
+    private List<Long> ids;
+}
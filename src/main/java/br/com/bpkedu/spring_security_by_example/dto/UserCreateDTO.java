@@ -0,0 +1,29 @@
+package br.com.bpkedu.spring_security_by_example.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserCreateDTO {
+    @NotBlank(message = "Username é obrigatório")
+    @Size(min = 3, max = 50, message = "Username deve ter entre 3 e 50 caracteres")
+    private String username;
+
+    @NotBlank(message = "Password é obrigatório")
+    @Size(min = 6, message = "Password deve ter no mínimo 6 caracteres")
+    private String password;
+
+    @NotBlank(message = "Email é obrigatório")
+    @Email(message = "Email deve ser válido")
+    @Size(max = 100, message = "Email deve ter no máximo 100 caracteres")
+    private String email;
+
+    @NotBlank(message = "Role é obrigatório")
+    private String role;
+}
@@ -0,0 +1,21 @@
+package br.com.bpkedu.spring_security_by_example.dto;
+
+import br.com.bpkedu.spring_security_by_example.domain.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserDTO {
+    private Long id;
+    private String username;
+    private String email;
+    private String role;
+    private boolean enabled;
+
+    public static UserDTO from(User user) {
+        return new UserDTO(user.getId(), user.getUsername(), user.getEmail(), user.getRole(), user.isEnabled());
+    }
+}
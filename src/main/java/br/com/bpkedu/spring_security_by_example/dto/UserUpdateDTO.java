@@ -0,0 +1,12 @@
+package br.com.bpkedu.spring_security_by_example.dto;
+
+import lombok.Data;
+
+/**
+ * Alteração parcial de usuário: campos nulos não são modificados.
+ */
+@Data
+public class UserUpdateDTO {
+    private Boolean enabled;
+    private String role;
+}
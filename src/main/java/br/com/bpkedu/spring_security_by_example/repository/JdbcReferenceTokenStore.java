@@ -0,0 +1,53 @@
+package br.com.bpkedu.spring_security_by_example.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link ReferenceTokenStore} na tabela {@code reference_tokens}.
+ */
+public class JdbcReferenceTokenStore implements ReferenceTokenStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcReferenceTokenStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Só devolve o token se o usuário continuar habilitado.
+     */
+    @Override
+    public Optional<StoredToken> load(String hash) {
+        List<StoredToken> tokens = jdbcTemplate.query(
+                "SELECT t.token_hash, t.username, t.role_mask, t.expires_at FROM reference_tokens t "
+                        + "JOIN users u ON u.username = t.username "
+                        + "WHERE t.token_hash = ? AND t.expires_at > ? AND u.enabled = TRUE",
+                (rs, rowNum) -> new StoredToken(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getLong(4)),
+                hash, System.currentTimeMillis());
+        return tokens.stream().findFirst();
+    }
+
+    @Override
+    public void save(StoredToken token) {
+        jdbcTemplate.update("INSERT INTO reference_tokens (token_hash, username, role_mask, expires_at) VALUES (?, ?, ?, ?)",
+                token.hash(), token.username(), token.roleMask(), token.expiresAt());
+    }
+
+    @Override
+    public void delete(String hash) {
+        jdbcTemplate.update("DELETE FROM reference_tokens WHERE token_hash = ?", hash);
+    }
+
+    @Override
+    public int deleteByUsername(String username) {
+        return jdbcTemplate.update("DELETE FROM reference_tokens WHERE username = ?", username);
+    }
+
+    @Override
+    public int deleteExpired(long now) {
+        return jdbcTemplate.update("DELETE FROM reference_tokens WHERE expires_at <= ?", now);
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.bpkedu.spring_security_by_example.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link SessionStore} na tabela {@code security_sessions}. A limpeza de sessões
+ * expiradas usa o índice em {@code expires_at}.
+ */
+public class JdbcSessionStore implements SessionStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcSessionStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<StoredSession> load(String id) {
+        List<StoredSession> sessions = jdbcTemplate.query(
+                "SELECT id, data, expires_at FROM security_sessions WHERE id = ? AND expires_at > ?",
+                (rs, rowNum) -> new StoredSession(rs.getString(1), rs.getBytes(2), rs.getLong(3)),
+                id, System.currentTimeMillis());
+        return sessions.stream().findFirst();
+    }
+
+    @Override
+    public void save(String id, byte[] data, long expiresAt) {
+        // Ids são sempre novos (gerados a cada login), então basta um INSERT
+        jdbcTemplate.update("INSERT INTO security_sessions (id, data, expires_at) VALUES (?, ?, ?)",
+                id, data, expiresAt);
+    }
+
+    @Override
+    public void touch(String id, long expiresAt) {
+        jdbcTemplate.update("UPDATE security_sessions SET expires_at = ? WHERE id = ?", expiresAt, id);
+    }
+
+    @Override
+    public void delete(String id) {
+        jdbcTemplate.update("DELETE FROM security_sessions WHERE id = ?", id);
+    }
+
+    @Override
+    public int deleteExpired(long now) {
+        return jdbcTemplate.update("DELETE FROM security_sessions WHERE expires_at <= ?", now);
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.bpkedu.spring_security_by_example.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache local (LRU limitado, com TTL curto) na frente de outro {@link SessionStore}.
+ * <p>
+ * Evita uma ida ao banco por requisição; em troca, um logout feito em outro nó
+ * só é percebido aqui depois de no máximo {@code ttlMillis}.
+ */
+public class NearCacheSessionStore implements SessionStore {
+
+    private record Entry(StoredSession session, long cachedUntil) {
+    }
+
+    private final SessionStore delegate;
+    private final long ttlMillis;
+    private final Map<String, Entry> cache;
+
+    public NearCacheSessionStore(SessionStore delegate, long ttlMillis, int maxEntries) {
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Optional<StoredSession> load(String id) {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            Entry entry = cache.get(id);
+            if (entry != null && entry.cachedUntil() > now && entry.session().expiresAt() > now) {
+                return Optional.of(entry.session());
+            }
+        }
+        Optional<StoredSession> session = delegate.load(id);
+        synchronized (cache) {
+            if (session.isPresent()) {
+                cache.put(id, new Entry(session.get(), now + ttlMillis));
+            } else {
+                cache.remove(id);
+            }
+        }
+        return session;
+    }
+
+    @Override
+    public void save(String id, byte[] data, long expiresAt) {
+        delegate.save(id, data, expiresAt);
+        synchronized (cache) {
+            cache.put(id, new Entry(new StoredSession(id, data, expiresAt), System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    @Override
+    public void touch(String id, long expiresAt) {
+        delegate.touch(id, expiresAt);
+        synchronized (cache) {
+            Entry entry = cache.get(id);
+            if (entry != null) {
+                StoredSession session = entry.session();
+                cache.put(id, new Entry(new StoredSession(id, session.data(), expiresAt), entry.cachedUntil()));
+            }
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        synchronized (cache) {
+            cache.remove(id);
+        }
+        delegate.delete(id);
+    }
+
+    @Override
+    public int deleteExpired(long now) {
+        synchronized (cache) {
+            cache.values().removeIf(entry -> entry.session().expiresAt() <= now);
+        }
+        return delegate.deleteExpired(now);
+    }
+}
@@ -0,0 +1,515 @@
+package br.com.bpkedu.spring_security_by_example.repository;
+
+import br.com.bpkedu.spring_security_by_example.domain.ProductChange;
+import br.com.bpkedu.spring_security_by_example.domain.ProductChange.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal append-only das alterações de produtos, em segmentos mapeados em memória.
+ * <p>
+ * Cada registro tem o formato {@code [int tamanho][int crc32][payload]}, com o payload
+ * em binário (sequência, timestamp, tipo, id e os campos presentes, marcados por um
+ * byte de flags). Um tamanho zero marca o fim dos dados do segmento. Os segmentos se
+ * chamam {@code <primeira sequência>.journal} e um novo é aberto quando o atual enche.
+ * <p>
+ * O fsync é feito em grupo por uma thread dedicada: com {@code app.journal.sync=true}
+ * o append espera o próximo {@code force()}, que cobre todos os registros escritos até
+ * ali. A compactação periódica reescreve os segmentos fechados mantendo apenas o
+ * último registro de cada produto (inclusive exclusões), com as sequências originais.
+ */
+@Component
+public class ProductJournal implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductJournal.class);
+
+    private static final String SUFFIX = ".journal";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_PAYLOAD = 256 * 1024;
+    private static final int FLAG_NAME = 1;
+    private static final int FLAG_DESCRIPTION = 2;
+    private static final int FLAG_PRICE = 4;
+    private static final int FLAG_QUANTITY = 8;
+    private static final Type[] TYPES = Type.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final long flushIntervalMillis;
+    private final int compactionMinSegments;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Object writeLock = new Object();
+    private final Object flushLock = new Object();
+    private final ByteBuffer encodeBuffer;
+    private final CRC32 writeCrc = new CRC32();
+    private final Thread flusher;
+
+    private Segment active;
+    private volatile long nextSequence;
+    private long durableSequence;
+    private volatile boolean running = true;
+
+    public ProductJournal(@Value("${app.journal.dir:data/journal}") Path directory,
+                          @Value("${app.journal.segment-size:64MB}") DataSize segmentSize,
+                          @Value("${app.journal.sync:true}") boolean sync,
+                          @Value("${app.journal.flush-interval:10}") long flushIntervalMillis,
+                          @Value("${app.journal.compaction-min-segments:4}") int compactionMinSegments) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.sync = sync;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.compactionMinSegments = compactionMinSegments;
+        this.encodeBuffer = ByteBuffer.allocate(MAX_PAYLOAD);
+
+        open();
+        this.flusher = new Thread(this::flushLoop, "product-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Acrescenta a alteração ao journal e devolve a sequência atribuída. Com
+     * {@code app.journal.sync=true} só retorna depois do fsync.
+     */
+    public long append(ProductChange change) {
+        long sequence;
+        synchronized (writeLock) {
+            sequence = nextSequence;
+            ProductChange positioned = change.withPosition(sequence, System.currentTimeMillis());
+            encodeBuffer.clear();
+            encode(positioned, encodeBuffer);
+            encodeBuffer.flip();
+            int recordSize = HEADER_SIZE + encodeBuffer.remaining();
+            if (recordSize + Integer.BYTES > segmentSize) {
+                throw new IllegalArgumentException("Registro maior que o segmento: " + recordSize + " bytes");
+            }
+            if (active.writePosition + recordSize + Integer.BYTES > segmentSize) {
+                roll(sequence);
+            }
+            writeRecord(active, encodeBuffer);
+            // A escrita volátil publica o registro para os leitores
+            nextSequence = sequence + 1;
+        }
+        synchronized (flushLock) {
+            flushLock.notifyAll();
+            if (sync) {
+                awaitDurable(sequence);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Entrega ao consumer, em ordem, até {@code maxRecords} alterações com sequência
+     * a partir de {@code fromSequence}. Após uma compactação, sequências substituídas
+     * por um registro mais recente do mesmo produto não aparecem mais.
+     *
+     * @return a sequência a pedir na próxima leitura
+     */
+    public long replay(long fromSequence, int maxRecords, Consumer<ProductChange> consumer) {
+        long end = nextSequence;
+        long next = fromSequence;
+        int delivered = 0;
+        Long startKey = segments.floorKey(fromSequence);
+        Map<Long, Segment> candidates = startKey != null ? segments.tailMap(startKey, true) : segments;
+
+        for (Segment segment : candidates.values()) {
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.position(0);
+            CRC32 crc = new CRC32();
+            ProductChange change;
+            while (delivered < maxRecords && (change = readRecord(buffer, crc)) != null) {
+                if (change.sequence() >= end) {
+                    return next;
+                }
+                if (change.sequence() >= fromSequence) {
+                    consumer.accept(change);
+                    delivered++;
+                    next = change.sequence() + 1;
+                }
+            }
+            if (delivered >= maxRecords) {
+                break;
+            }
+        }
+        return next;
+    }
+
+    public long nextSequence() {
+        return nextSequence;
+    }
+
+    @Scheduled(fixedDelayString = "${app.journal.compaction-interval:3600000}")
+    public void compact() {
+        List<Segment> closed;
+        synchronized (writeLock) {
+            closed = new ArrayList<>(segments.headMap(active.baseSequence, false).values());
+        }
+        if (closed.size() < compactionMinSegments) {
+            return;
+        }
+
+        // Último registro de cada produto, na ordem das sequências
+        Map<Long, ProductChange> latest = new LinkedHashMap<>();
+        for (Segment segment : closed) {
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.position(0);
+            CRC32 crc = new CRC32();
+            ProductChange change;
+            while ((change = readRecord(buffer, crc)) != null) {
+                latest.remove(change.productId());
+                latest.put(change.productId(), change);
+            }
+        }
+
+        try {
+            long base = closed.get(0).baseSequence;
+            Path target = segmentPath(base);
+            Path temp = directory.resolve(target.getFileName() + COMPACTING_SUFFIX);
+            int records = writeCompacted(temp, latest.values());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Segment compacted = mapSegment(target, base, FileChannel.MapMode.READ_ONLY);
+            segments.put(base, compacted);
+            for (Segment segment : closed.subList(1, closed.size())) {
+                segments.remove(segment.baseSequence);
+                Files.deleteIfExists(segment.path);
+            }
+            logger.info("Journal de produtos compactado: {} segmentos, {} registros mantidos", closed.size(), records);
+        } catch (IOException e) {
+            logger.warn("Falha ao compactar o journal de produtos", e);
+        }
+    }
+
+    private int writeCompacted(Path path, Iterable<ProductChange> changes) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        int records = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (ProductChange change : changes) {
+                payload.clear();
+                encode(change, payload);
+                payload.flip();
+                crc.reset();
+                crc.update(payload.duplicate());
+                header.clear();
+                header.putInt(payload.remaining()).putInt((int) crc.getValue()).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (payload.hasRemaining()) {
+                    channel.write(payload);
+                }
+                records++;
+            }
+            ByteBuffer terminator = ByteBuffer.allocate(Integer.BYTES);
+            while (terminator.hasRemaining()) {
+                channel.write(terminator);
+            }
+            channel.force(true);
+        }
+        return records;
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.toList();
+        }
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(COMPACTING_SUFFIX)) {
+                Files.delete(file);
+            }
+        }
+
+        List<Path> segmentFiles = files.stream()
+                .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                .sorted(Comparator.comparingLong(ProductJournal::baseSequenceOf))
+                .toList();
+        long lastSequence = -1;
+        for (int i = 0; i < segmentFiles.size(); i++) {
+            Path file = segmentFiles.get(i);
+            long base = baseSequenceOf(file);
+            if (base <= lastSequence) {
+                // Sobra de uma compactação interrompida: já está contido no segmento compactado
+                Files.delete(file);
+                continue;
+            }
+            boolean last = i == segmentFiles.size() - 1 && Files.size(file) == segmentSize;
+            Segment segment = mapSegment(file, base,
+                    last ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY);
+            lastSequence = Math.max(lastSequence, recover(segment, last));
+            segments.put(base, segment);
+            if (last) {
+                active = segment;
+            }
+        }
+
+        nextSequence = lastSequence + 1;
+        durableSequence = lastSequence;
+        if (active == null) {
+            active = createSegment(nextSequence);
+        }
+        logger.info("Journal de produtos aberto em {}: {} segmentos, próxima sequência {}",
+                directory, segments.size(), nextSequence);
+    }
+
+    /**
+     * Percorre o segmento até o último registro válido e devolve a última sequência.
+     * No segmento ativo, apaga o que vier depois (escrita interrompida).
+     */
+    private long recover(Segment segment, boolean writable) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(0);
+        CRC32 crc = new CRC32();
+        long lastSequence = -1;
+        ProductChange change;
+        while ((change = readRecord(buffer, crc)) != null) {
+            lastSequence = change.sequence();
+        }
+        int end = buffer.position();
+        if (writable) {
+            segment.writePosition = end;
+            if (end + Integer.BYTES <= segmentSize && segment.buffer.getInt(end) != 0) {
+                logger.warn("Registro incompleto no fim de {}, descartado", segment.path.getFileName());
+                for (int i = end; i < segmentSize; i++) {
+                    segment.buffer.put(i, (byte) 0);
+                }
+                segment.buffer.force();
+            }
+        }
+        return lastSequence;
+    }
+
+    private void roll(long baseSequence) {
+        // O segmento que fecha é sincronizado antes de abrir o próximo
+        active.buffer.force();
+        try {
+            active = createSegment(baseSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar segmento do journal", e);
+        }
+    }
+
+    private Segment createSegment(long baseSequence) throws IOException {
+        Path path = segmentPath(baseSequence);
+        Segment segment = mapSegment(path, baseSequence, FileChannel.MapMode.READ_WRITE);
+        segments.put(baseSequence, segment);
+        return segment;
+    }
+
+    private Segment mapSegment(Path path, long baseSequence, FileChannel.MapMode mode) throws IOException {
+        boolean writable = mode == FileChannel.MapMode.READ_WRITE;
+        try (FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = writable ? segmentSize : channel.size();
+            // O mapeamento continua válido depois que o canal é fechado
+            return new Segment(path, baseSequence, channel.map(mode, 0, size));
+        }
+    }
+
+    private void writeRecord(Segment segment, ByteBuffer payload) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = segment.writePosition;
+        int length = payload.remaining();
+        writeCrc.reset();
+        writeCrc.update(payload.duplicate());
+
+        buffer.put(position + HEADER_SIZE, payload, payload.position(), length);
+        buffer.putInt(position + Integer.BYTES, (int) writeCrc.getValue());
+        // O tamanho é gravado por último: até lá o leitor vê o fim do segmento
+        buffer.putInt(position, length);
+        segment.writePosition = position + HEADER_SIZE + length;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                long target;
+                Segment segment;
+                synchronized (flushLock) {
+                    if (nextSequence - 1 <= durableSequence) {
+                        flushLock.wait(flushIntervalMillis);
+                    }
+                }
+                synchronized (writeLock) {
+                    target = nextSequence - 1;
+                    segment = active;
+                }
+                if (target > durableSequence) {
+                    // Um force cobre todos os appends feitos até aqui (group commit)
+                    segment.buffer.force();
+                    synchronized (flushLock) {
+                        durableSequence = Math.max(durableSequence, target);
+                        flushLock.notifyAll();
+                    }
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                logger.warn("Falha no fsync do journal de produtos", e);
+            }
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        try {
+            while (durableSequence < sequence && running) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Tempo esgotado aguardando o fsync do journal");
+                }
+                flushLock.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o fsync do journal", e);
+        }
+    }
+
+    private static void encode(ProductChange change, ByteBuffer buffer) {
+        buffer.putLong(change.sequence());
+        buffer.putLong(change.timestamp());
+        buffer.put((byte) change.type().ordinal());
+        buffer.putLong(change.productId());
+
+        int flags = (change.name() != null ? FLAG_NAME : 0)
+                | (change.description() != null ? FLAG_DESCRIPTION : 0)
+                | (change.price() != null ? FLAG_PRICE : 0)
+                | (change.quantity() != null ? FLAG_QUANTITY : 0);
+        buffer.put((byte) flags);
+        if (change.name() != null) {
+            putBytes(buffer, change.name().getBytes(StandardCharsets.UTF_8));
+        }
+        if (change.description() != null) {
+            putBytes(buffer, change.description().getBytes(StandardCharsets.UTF_8));
+        }
+        if (change.price() != null) {
+            buffer.putInt(change.price().scale());
+            putBytes(buffer, change.price().unscaledValue().toByteArray());
+        }
+        if (change.quantity() != null) {
+            buffer.putInt(change.quantity());
+        }
+    }
+
+    /**
+     * Lê o registro na posição atual do buffer e avança; devolve {@code null} no fim
+     * dos dados ou em um registro corrompido.
+     */
+    private static ProductChange readRecord(ByteBuffer buffer, CRC32 crc) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > buffer.remaining() - HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(start + HEADER_SIZE, length);
+        crc.reset();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES)) {
+            return null;
+        }
+
+        long sequence = payload.getLong();
+        long timestamp = payload.getLong();
+        Type type = TYPES[payload.get()];
+        long productId = payload.getLong();
+        int flags = payload.get();
+        String name = (flags & FLAG_NAME) != 0 ? new String(getBytes(payload), StandardCharsets.UTF_8) : null;
+        String description = (flags & FLAG_DESCRIPTION) != 0 ? new String(getBytes(payload), StandardCharsets.UTF_8) : null;
+        BigDecimal price = null;
+        if ((flags & FLAG_PRICE) != 0) {
+            int scale = payload.getInt();
+            price = new BigDecimal(new BigInteger(getBytes(payload)), scale);
+        }
+        Integer quantity = (flags & FLAG_QUANTITY) != 0 ? payload.getInt() : null;
+
+        buffer.position(start + HEADER_SIZE + length);
+        return new ProductChange(sequence, timestamp, type, productId, name, description, price, quantity);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Campo maior que 64KB não cabe no journal");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private Path segmentPath(long baseSequence) {
+        return directory.resolve(String.format("%020d%s", baseSequence, SUFFIX));
+    }
+
+    private static long baseSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(2));
+        synchronized (writeLock) {
+            active.buffer.force();
+        }
+    }
+
+    private static final class Segment {
+        final Path path;
+        final long baseSequence;
+        final MappedByteBuffer buffer;
+        int writePosition;
+
+        Segment(Path path, long baseSequence, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseSequence = baseSequence;
+            this.buffer = buffer;
+        }
+    }
+}
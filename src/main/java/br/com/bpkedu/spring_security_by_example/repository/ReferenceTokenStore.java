@@ -0,0 +1,25 @@
+package br.com.bpkedu.spring_security_by_example.repository;
+
+import java.util.Optional;
+
+/**
+ * Armazenamento persistente dos tokens de referência (opacos).
+ * <p>
+ * O token em si nunca é gravado: a chave é o hash SHA-256 do token, em hexadecimal.
+ * As expirações são instantes em epoch millis.
+ */
+public interface ReferenceTokenStore {
+
+    record StoredToken(String hash, String username, int roleMask, long expiresAt) {
+    }
+
+    Optional<StoredToken> load(String hash);
+
+    void save(StoredToken token);
+
+    void delete(String hash);
+
+    int deleteByUsername(String username);
+
+    int deleteExpired(long now);
+}
@@ -0,0 +1,25 @@
+package br.com.bpkedu.spring_security_by_example.repository;
+
+import java.util.Optional;
+
+/**
+ * Armazenamento externo das sessões do form login, compartilhado entre os nós.
+ * <p>
+ * O conteúdo da sessão é opaco para o store (bytes produzidos pelo
+ * {@code SecurityContextCodec}); as expirações são instantes em epoch millis.
+ */
+public interface SessionStore {
+
+    record StoredSession(String id, byte[] data, long expiresAt) {
+    }
+
+    Optional<StoredSession> load(String id);
+
+    void save(String id, byte[] data, long expiresAt);
+
+    void touch(String id, long expiresAt);
+
+    void delete(String id);
+
+    int deleteExpired(long now);
+}
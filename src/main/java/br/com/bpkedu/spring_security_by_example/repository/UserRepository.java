@@ -2,11 +2,33 @@ package br.com.bpkedu.spring_security_by_example.repository;
 
 import br.com.bpkedu.spring_security_by_example.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
-} 
\ No newline at end of file
+
+    boolean existsByUsernameOrEmail(String username, String email);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.failedAttempts = :failedAttempts, u.lockedUntil = :lockedUntil where u.username = :username")
+    int updateLoginAttempts(@Param("username") String username,
+                            @Param("failedAttempts") int failedAttempts,
+                            @Param("lockedUntil") Instant lockedUntil);
+} 
@@ -0,0 +1,25 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão do catálogo de produtos, incrementada depois de cada escrita confirmada.
+ * <p>
+ * Quem guarda derivados do catálogo (ex.: {@link ResponseByteCache}) lê a versão
+ * antes de consultar o banco e descarta o que foi gravado com uma versão anterior.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+}
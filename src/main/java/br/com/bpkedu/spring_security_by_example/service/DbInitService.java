@@ -2,42 +2,58 @@ package br.com.bpkedu.spring_security_by_example.service;
 
 import br.com.bpkedu.spring_security_by_example.domain.User;
 import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 public class DbInitService implements CommandLineRunner {
 
+    // Hashes BCrypt (força 10) pré-calculados das senhas "admin" e "user", para que a
+    // inicialização não precise executar o BCrypt antes de aceitar requisições
+    private static final String ADMIN_PASSWORD_HASH = "$2a$10$Rz3S3O4vwCKU7ISoNqUt3u.jOIC5cjbq4yyT1mVhVrYCVj2t0J6TG";
+    private static final String USER_PASSWORD_HASH = "$2a$10$nWn9WmF/CRvj1dEorKnZUuojfGUiKmGDun/Xf/rIIzEQWUdy5RBVW";
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final SyntheticDataSeeder syntheticDataSeeder;
+
+    @Value("${app.db.reset-on-startup:true}")
+    private boolean resetOnStartup;
 
-    public DbInitService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public DbInitService(UserRepository userRepository, SyntheticDataSeeder syntheticDataSeeder) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.syntheticDataSeeder = syntheticDataSeeder;
     }
 
     @Override
     public void run(String... args) {
-        // Deletar usuários existentes
-        userRepository.deleteAll();
+        // Deletar usuários existentes (desabilitado em bancos persistentes)
+        if (resetOnStartup) {
+            userRepository.deleteAllInBatch();
+        }
 
         // Criar usuário admin
-        User admin = new User();
-        admin.setUsername("admin");
-        admin.setPassword(passwordEncoder.encode("admin"));
-        admin.setEmail("admin@example.com");
-        admin.setRole("ROLE_ADMIN");
-        admin.setEnabled(true);
-        userRepository.save(admin);
+        createIfMissing("admin", ADMIN_PASSWORD_HASH, "admin@example.com", "ROLE_ADMIN");
 
         // Criar usuário comum
+        createIfMissing("user", USER_PASSWORD_HASH, "user@example.com", "ROLE_USER");
+
+        // Dados sintéticos para testes de capacidade (app.seed.*)
+        if (syntheticDataSeeder.isEnabled()) {
+            syntheticDataSeeder.seed();
+        }
+    }
+
+    private void createIfMissing(String username, String passwordHash, String email, String role) {
+        if (userRepository.findByUsername(username).isPresent()) {
+            return;
+        }
         User user = new User();
-        user.setUsername("user");
-        user.setPassword(passwordEncoder.encode("user"));
-        user.setEmail("user@example.com");
-        user.setRole("ROLE_USER");
+        user.setUsername(username);
+        user.setPassword(passwordHash);
+        user.setEmail(email);
+        user.setRole(role);
         user.setEnabled(true);
         userRepository.save(user);
     }
-} 
\ No newline at end of file
+} 
@@ -0,0 +1,228 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import br.com.bpkedu.spring_security_by_example.domain.User;
+import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controle de tentativas de login com back-off exponencial.
+ * <p>
+ * O estado fica em um mapa LRU limitado em memória (consultado antes de qualquer
+ * acesso ao banco ou ao BCrypt) e é persistido nas colunas {@code failed_attempts}
+ * e {@code locked_until} da tabela {@code users} para sobreviver a reinícios.
+ * Usernames inexistentes ficam em um mapa separado e menor, só em memória, para não
+ * expulsar do LRU o estado dos usuários reais.
+ * <p>
+ * Além do bloqueio por usuário, as falhas são limitadas por origem (IP) em uma janela
+ * deslizante: um password spraying (uma tentativa por username) esbarra nesse limite
+ * antes de chegar ao BCrypt. O total de falhas por segundo não recusa ninguém; acima
+ * dele a aplicação só deixa de gastar BCrypt com usernames inexistentes.
+ */
+@Service
+public class LoginAttemptService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptService.class);
+
+    private final UserRepository userRepository;
+    private final int maxAttempts;
+    private final long lockDuration;
+    private final long maxLockDuration;
+    private final int maxSourceFailures;
+    private final long sourceWindow;
+    private final int maxFailuresPerSecond;
+    private final Map<String, Attempts> attempts;
+    private final Map<String, Attempts> unknownAttempts;
+    private final Map<String, Window> sources;
+
+    private long globalSecond;
+    private int globalFailures;
+
+    public LoginAttemptService(UserRepository userRepository,
+                               @Value("${security.login.max-attempts:5}") int maxAttempts,
+                               @Value("${security.login.lock-duration:30000}") long lockDuration,
+                               @Value("${security.login.max-lock-duration:900000}") long maxLockDuration,
+                               @Value("${security.login.cache-size:10000}") int cacheSize,
+                               @Value("${security.login.unknown-cache-size:1000}") int unknownCacheSize,
+                               @Value("${security.login.max-source-failures:20}") int maxSourceFailures,
+                               @Value("${security.login.source-window:60000}") long sourceWindow,
+                               @Value("${security.login.max-failures-per-second:50}") int maxFailuresPerSecond) {
+        this.userRepository = userRepository;
+        this.maxAttempts = maxAttempts;
+        this.lockDuration = lockDuration;
+        this.maxLockDuration = maxLockDuration;
+        this.maxSourceFailures = maxSourceFailures;
+        this.sourceWindow = sourceWindow;
+        this.maxFailuresPerSecond = maxFailuresPerSecond;
+        this.attempts = lru(cacheSize);
+        this.unknownAttempts = lru(unknownCacheSize);
+        this.sources = lru(cacheSize);
+    }
+
+    /**
+     * Indica se o usuário está bloqueado segundo o estado em memória.
+     * Não acessa o banco: é o caminho quente sob ataques de força bruta.
+     */
+    public boolean isBlocked(String username) {
+        if (username == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (attempts) {
+            Attempts current = attempts.get(username);
+            if (current == null) {
+                current = unknownAttempts.get(username);
+            }
+            return current != null && current.lockedUntil > now;
+        }
+    }
+
+    /**
+     * Indica se a origem excedeu o limite de falhas. Também só consulta a memória.
+     */
+    public boolean isThrottled(String source) {
+        if (source == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (attempts) {
+            Window window = sources.get(source);
+            return window != null && now - window.start < sourceWindow && window.failures >= maxSourceFailures;
+        }
+    }
+
+    /**
+     * Indica se o total de falhas no segundo corrente passou do limite global.
+     */
+    public boolean isUnderAttack() {
+        long now = System.currentTimeMillis();
+        synchronized (attempts) {
+            return now / 1000 == globalSecond && globalFailures >= maxFailuresPerSecond;
+        }
+    }
+
+    /**
+     * Falha de senha de um usuário existente: conta para o bloqueio e é persistida.
+     */
+    public void loginFailed(String username, String source) {
+        if (username == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Attempts current;
+        int failures;
+        long lockedUntil;
+        synchronized (attempts) {
+            countFailure(source, now);
+            current = attempts.computeIfAbsent(username, key -> new Attempts());
+            failures = current.fail(now);
+            lockedUntil = current.lockedUntil;
+        }
+
+        if (lockedUntil > now) {
+            logger.debug("Usuário {} bloqueado após {} tentativas", username, failures);
+        }
+        userRepository.updateLoginAttempts(username, failures, lockedUntil > 0 ? Instant.ofEpochMilli(lockedUntil) : null);
+    }
+
+    /**
+     * Falha de um username inexistente: fica só no mapa de inexistentes, sem ir ao banco.
+     */
+    public void unknownUserFailed(String username, String source) {
+        long now = System.currentTimeMillis();
+        synchronized (attempts) {
+            countFailure(source, now);
+            if (username != null) {
+                unknownAttempts.computeIfAbsent(username, key -> new Attempts()).fail(now);
+            }
+        }
+    }
+
+    public void loginSucceeded(String username) {
+        Attempts previous;
+        synchronized (attempts) {
+            previous = attempts.remove(username);
+        }
+        if (previous != null && previous.failures > 0) {
+            userRepository.updateLoginAttempts(username, 0, null);
+        }
+    }
+
+    /**
+     * Recarrega o estado persistido de um usuário (por exemplo, após um reinício),
+     * para que as próximas tentativas sejam rejeitadas já pela memória.
+     */
+    public void restore(User user) {
+        if (user.getFailedAttempts() == 0 && user.getLockedUntil() == null) {
+            return;
+        }
+        synchronized (attempts) {
+            Attempts current = attempts.computeIfAbsent(user.getUsername(), key -> new Attempts());
+            current.failures = Math.max(current.failures, user.getFailedAttempts());
+            if (user.getLockedUntil() != null) {
+                current.lockedUntil = Math.max(current.lockedUntil, user.getLockedUntil().toEpochMilli());
+            }
+        }
+    }
+
+    long lockDurationFor(int failures) {
+        int exponent = Math.min(failures - maxAttempts, 30);
+        long duration = lockDuration << exponent;
+        return duration <= 0 ? maxLockDuration : Math.min(duration, maxLockDuration);
+    }
+
+    private void countFailure(String source, long now) {
+        long second = now / 1000;
+        if (second != globalSecond) {
+            globalSecond = second;
+            globalFailures = 0;
+        }
+        globalFailures++;
+
+        if (source != null) {
+            Window window = sources.get(source);
+            if (window == null || now - window.start >= sourceWindow) {
+                window = new Window(now);
+                sources.put(source, window);
+            }
+            window.failures++;
+        }
+    }
+
+    private static <V> Map<String, V> lru(int maxEntries) {
+        return new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private final class Attempts {
+        int failures;
+        long lockedUntil;
+
+        int fail(long now) {
+            failures++;
+            if (failures >= maxAttempts) {
+                lockedUntil = now + lockDurationFor(failures);
+            }
+            return failures;
+        }
+    }
+
+    private static final class Window {
+        final long start;
+        int failures;
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+}
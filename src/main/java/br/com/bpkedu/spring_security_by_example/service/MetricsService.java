@@ -0,0 +1,194 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.authentication.event.AuthenticationFailureCredentialsExpiredEvent;
+import org.springframework.security.authentication.event.AuthenticationFailureDisabledEvent;
+import org.springframework.security.authentication.event.AuthenticationFailureExpiredEvent;
+import org.springframework.security.authentication.event.AuthenticationFailureLockedEvent;
+import org.springframework.security.authentication.event.AuthenticationFailureServiceExceptionEvent;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas dos caminhos quentes de autenticação e de produtos.
+ * <p>
+ * Todos os timers e contadores são registrados na inicialização, um por
+ * combinação de tags, e publicam histogramas com buckets fixos. Assim, o
+ * registro de uma medição não faz lookup no registry nem aloca objetos:
+ * os chamadores medem com {@link System#nanoTime()} e repassam a duração.
+ */
+@Service
+public class MetricsService {
+
+    public enum TokenOutcome { SUCCESS, INVALID, ERROR }
+
+    public enum FilterOutcome { AUTHENTICATED, ANONYMOUS, REJECTED, ERROR }
+
+    public enum ProductOperation { LIST, GET, BATCH_GET, CREATE, UPDATE, DELETE }
+
+    public enum CoalescedLookup { USER_DETAILS, PRODUCT }
+
+    public enum AuthFailureReason {
+        BAD_CREDENTIALS, LOCKED, DISABLED, EXPIRED, CREDENTIALS_EXPIRED, SERVICE_ERROR, TOKEN_INVALID, OTHER
+    }
+
+    private static final Duration FAST_MIN = Duration.ofNanos(10_000);
+    private static final Duration FAST_MAX = Duration.ofMillis(500);
+    private static final Duration SLOW_MIN = Duration.ofMillis(1);
+    private static final Duration SLOW_MAX = Duration.ofSeconds(10);
+
+    private final Timer[] tokenSign;
+    private final Timer[] tokenVerify;
+    private final Timer userFound;
+    private final Timer userNotFound;
+    private final Timer passwordMatch;
+    private final Timer passwordMismatch;
+    private final Timer[] jwtFilter;
+    private final Timer[][] productTimers;
+    private final Counter[] authFailures;
+    private final Counter[] coalescedCalls;
+
+    public MetricsService(MeterRegistry registry) {
+        tokenSign = timers(registry, "security.token.sign", "Tempo de assinatura de tokens JWT",
+                TokenOutcome.values(), FAST_MIN, FAST_MAX);
+        tokenVerify = timers(registry, "security.token.verify", "Tempo de verificação de tokens JWT",
+                TokenOutcome.values(), FAST_MIN, FAST_MAX);
+        userFound = timer(registry, "security.userdetails.load", "Tempo de carga do UserDetails",
+                "found", FAST_MIN, FAST_MAX);
+        userNotFound = timer(registry, "security.userdetails.load", "Tempo de carga do UserDetails",
+                "not_found", FAST_MIN, FAST_MAX);
+        passwordMatch = timer(registry, "security.password.match", "Tempo de comparação de senha (BCrypt)",
+                "match", SLOW_MIN, SLOW_MAX);
+        passwordMismatch = timer(registry, "security.password.match", "Tempo de comparação de senha (BCrypt)",
+                "mismatch", SLOW_MIN, SLOW_MAX);
+        jwtFilter = timers(registry, "security.jwt.filter", "Tempo gasto no JwtAuthenticationFilter",
+                FilterOutcome.values(), FAST_MIN, FAST_MAX);
+
+        ProductOperation[] operations = ProductOperation.values();
+        productTimers = new Timer[operations.length][2];
+        for (ProductOperation operation : operations) {
+            for (int found = 0; found < 2; found++) {
+                productTimers[operation.ordinal()][found] = Timer.builder("products.operation")
+                        .description("Latência das operações do ProductController")
+                        .tag("operation", tagValue(operation))
+                        .tag("outcome", found == 1 ? "success" : "not_found")
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(FAST_MIN)
+                        .maximumExpectedValue(SLOW_MAX)
+                        .register(registry);
+            }
+        }
+
+        AuthFailureReason[] reasons = AuthFailureReason.values();
+        authFailures = new Counter[reasons.length];
+        for (AuthFailureReason reason : reasons) {
+            authFailures[reason.ordinal()] = Counter.builder("security.auth.failures")
+                    .description("Falhas de autenticação por motivo")
+                    .tag("reason", tagValue(reason))
+                    .register(registry);
+        }
+
+        CoalescedLookup[] lookups = CoalescedLookup.values();
+        coalescedCalls = new Counter[lookups.length];
+        for (CoalescedLookup lookup : lookups) {
+            coalescedCalls[lookup.ordinal()] = Counter.builder("lookup.coalesced")
+                    .description("Chamadas atendidas por uma carga idêntica já em andamento")
+                    .tag("lookup", tagValue(lookup))
+                    .register(registry);
+        }
+    }
+
+    public void recordTokenSign(TokenOutcome outcome, long startNanos) {
+        record(tokenSign[outcome.ordinal()], startNanos);
+    }
+
+    public void recordTokenVerify(TokenOutcome outcome, long startNanos) {
+        record(tokenVerify[outcome.ordinal()], startNanos);
+    }
+
+    public void recordUserLoad(boolean found, long startNanos) {
+        record(found ? userFound : userNotFound, startNanos);
+    }
+
+    public void recordPasswordMatch(boolean matches, long startNanos) {
+        record(matches ? passwordMatch : passwordMismatch, startNanos);
+    }
+
+    public void recordJwtFilter(FilterOutcome outcome, long startNanos) {
+        record(jwtFilter[outcome.ordinal()], startNanos);
+    }
+
+    public void recordProductOperation(ProductOperation operation, boolean found, long startNanos) {
+        record(productTimers[operation.ordinal()][found ? 1 : 0], startNanos);
+    }
+
+    public void authFailure(AuthFailureReason reason) {
+        authFailures[reason.ordinal()].increment();
+    }
+
+    public void coalescedCall(CoalescedLookup lookup) {
+        coalescedCalls[lookup.ordinal()].increment();
+    }
+
+    @EventListener
+    public void onAuthenticationFailure(AbstractAuthenticationFailureEvent event) {
+        authFailure(reasonOf(event));
+    }
+
+    private static AuthFailureReason reasonOf(AbstractAuthenticationFailureEvent event) {
+        if (event instanceof AuthenticationFailureBadCredentialsEvent) {
+            return AuthFailureReason.BAD_CREDENTIALS;
+        }
+        if (event instanceof AuthenticationFailureLockedEvent) {
+            return AuthFailureReason.LOCKED;
+        }
+        if (event instanceof AuthenticationFailureDisabledEvent) {
+            return AuthFailureReason.DISABLED;
+        }
+        if (event instanceof AuthenticationFailureExpiredEvent) {
+            return AuthFailureReason.EXPIRED;
+        }
+        if (event instanceof AuthenticationFailureCredentialsExpiredEvent) {
+            return AuthFailureReason.CREDENTIALS_EXPIRED;
+        }
+        if (event instanceof AuthenticationFailureServiceExceptionEvent) {
+            return AuthFailureReason.SERVICE_ERROR;
+        }
+        return AuthFailureReason.OTHER;
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer[] timers(MeterRegistry registry, String name, String description,
+                                  Enum<?>[] outcomes, Duration min, Duration max) {
+        Timer[] timers = new Timer[outcomes.length];
+        for (Enum<?> outcome : outcomes) {
+            timers[outcome.ordinal()] = timer(registry, name, description, tagValue(outcome), min, max);
+        }
+        return timers;
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description,
+                               String outcome, Duration min, Duration max) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(min)
+                .maximumExpectedValue(max)
+                .register(registry);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase();
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import br.com.bpkedu.spring_security_by_example.domain.Product;
+import br.com.bpkedu.spring_security_by_example.dto.ProductBatchDTO;
+import br.com.bpkedu.spring_security_by_example.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Busca de vários produtos por ID em uma única ida ao banco.
+ * <p>
+ * Os IDs são deduplicados e consultados com {@code IN}; conjuntos maiores que
+ * {@code app.products.batch.chunk-size} são divididos em várias consultas.
+ */
+@Service
+public class ProductBatchService {
+
+    private final ProductRepository productRepository;
+    private final int chunkSize;
+    private final int maxIds;
+
+    public ProductBatchService(ProductRepository productRepository,
+                               @Value("${app.products.batch.chunk-size:1000}") int chunkSize,
+                               @Value("${app.products.batch.max-ids:10000}") int maxIds) {
+        this.productRepository = productRepository;
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+    }
+
+    public boolean isWithinLimit(Collection<Long> ids) {
+        return ids.size() <= maxIds;
+    }
+
+    public ProductBatchDTO findByIds(Collection<Long> ids) {
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        List<Long> unique = new ArrayList<>(distinct);
+
+        Map<Long, Product> found = new HashMap<>(unique.size() * 2);
+        for (int from = 0; from < unique.size(); from += chunkSize) {
+            List<Long> chunk = unique.subList(from, Math.min(from + chunkSize, unique.size()));
+            for (Product product : productRepository.findAllById(chunk)) {
+                found.put(product.getId(), product);
+            }
+        }
+
+        List<Product> products = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : unique) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatchDTO(products, missing);
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import br.com.bpkedu.spring_security_by_example.domain.Product;
+import br.com.bpkedu.spring_security_by_example.domain.ProductChange;
+import br.com.bpkedu.spring_security_by_example.repository.ProductJournal;
+import br.com.bpkedu.spring_security_by_example.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Escritas em produtos com o registro no {@link ProductJournal}.
+ * <p>
+ * O append é feito dentro da transação, depois do flush e com a linha do produto
+ * travada ({@code SELECT ... FOR UPDATE}): duas escritas no mesmo produto entram no
+ * journal na ordem em que são confirmadas no banco. Se o append falhar, a transação é
+ * desfeita e a escrita falha. Se o commit falhar depois do append, o journal fica com
+ * um registro que não chegou ao banco; quem consome o journal deve tratar cada
+ * registro como o estado desejado do produto, não como um fato confirmado.
+ */
+@Service
+public class ProductWriteService {
+
+    private final ProductRepository productRepository;
+    private final ProductJournal journal;
+    private final CatalogVersion catalogVersion;
+
+    public ProductWriteService(ProductRepository productRepository, ProductJournal journal,
+                               CatalogVersion catalogVersion) {
+        this.productRepository = productRepository;
+        this.journal = journal;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Transactional
+    public Product create(Product product) {
+        // Com IDENTITY o INSERT é imediato: o id já existe para o journal
+        Product saved = productRepository.saveAndFlush(product);
+        changed(ProductChange.created(saved));
+        return saved;
+    }
+
+    @Transactional
+    public Optional<Product> update(Long id, Product product) {
+        return productRepository.findByIdForUpdate(id).map(existing -> {
+            existing.setName(product.getName());
+            existing.setDescription(product.getDescription());
+            existing.setPrice(product.getPrice());
+            existing.setQuantity(product.getQuantity());
+            Product saved = productRepository.saveAndFlush(existing);
+            changed(ProductChange.updated(saved));
+            return saved;
+        });
+    }
+
+    @Transactional
+    public boolean delete(Long id) {
+        return productRepository.findByIdForUpdate(id).map(product -> {
+            productRepository.delete(product);
+            productRepository.flush();
+            changed(ProductChange.deleted(id));
+            return true;
+        }).orElse(false);
+    }
+
+    private void changed(ProductChange change) {
+        journal.append(change);
+        // As respostas em cache só são invalidadas quando a escrita já é visível
+        AfterCommit.run(catalogVersion::bump);
+    }
+}
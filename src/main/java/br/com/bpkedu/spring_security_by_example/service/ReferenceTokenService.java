@@ -0,0 +1,212 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import br.com.bpkedu.spring_security_by_example.repository.ReferenceTokenStore;
+import br.com.bpkedu.spring_security_by_example.repository.ReferenceTokenStore.StoredToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens de referência: um valor aleatório curto que aponta para o principal em um
+ * índice em memória, no lugar de um JWT assinado.
+ * <p>
+ * A resolução é uma consulta ao {@link ConcurrentHashMap}, sem criptografia. O índice
+ * tem tamanho limitado ({@code app.reference-token.max-entries}) e funciona como cache
+ * do {@link ReferenceTokenStore}: um token fora da memória (após um restart ou uma
+ * remoção por espaço) é buscado no banco pelo hash e volta ao índice.
+ * <p>
+ * O banco é a fonte de verdade. A revogação apaga a linha e só depois do commit
+ * remove o token do índice, deixando uma marca por {@code REVOCATION_WINDOW}: uma
+ * resolução que leu o banco antes do delete não volta a guardar o token. Como o índice
+ * é local a cada nó, toda entrada é conferida de novo no banco após
+ * {@code app.reference-token.recheck-interval}; é o prazo para que uma revogação, a
+ * desabilitação ou o bloqueio do usuário feitos em outro nó cheguem a este.
+ */
+@Service
+public class ReferenceTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceTokenService.class);
+
+    /**
+     * 24 bytes aleatórios em Base64 URL-safe, sem padding.
+     */
+    private static final int TOKEN_BYTES = 24;
+    private static final int TOKEN_LENGTH = 32;
+
+    /**
+     * Por quanto tempo uma revogação é lembrada; bem maior que qualquer consulta ao banco.
+     */
+    private static final long REVOCATION_WINDOW = 60_000;
+
+    public record Principal(String username, int roleMask, long expiresAt, long checkedAt) {
+
+        public List<GrantedAuthority> authorities() {
+            return RoleAuthorities.fromMask(roleMask);
+        }
+    }
+
+    private final ReferenceTokenStore store;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long recheckMillis;
+    private final Map<String, Principal> index = new ConcurrentHashMap<>();
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    public ReferenceTokenService(ReferenceTokenStore store,
+                                 @Value("${app.reference-token.ttl:24h}") Duration ttl,
+                                 @Value("${app.reference-token.max-entries:100000}") int maxEntries,
+                                 @Value("${app.reference-token.recheck-interval:30s}") Duration recheckInterval) {
+        this.store = store;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.recheckMillis = recheckInterval.toMillis();
+    }
+
+    /**
+     * Tokens de referência não têm ponto; JWTs sempre têm.
+     */
+    public static boolean isReferenceToken(String token) {
+        if (token.length() != TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            char c = token.charAt(i);
+            if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String issue(Authentication authentication) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        long now = System.currentTimeMillis();
+        Principal principal = new Principal(authentication.getName(),
+                RoleAuthorities.mask(authentication.getAuthorities()), now + ttlMillis, now);
+        store.save(new StoredToken(hash(token), principal.username(), principal.roleMask(), principal.expiresAt()));
+        cache(token, principal);
+        return token;
+    }
+
+    public Optional<Principal> resolve(String token) {
+        long now = System.currentTimeMillis();
+        Principal cached = index.get(token);
+        if (cached != null) {
+            if (cached.expiresAt() <= now) {
+                index.remove(token, cached);
+                return Optional.empty();
+            }
+            if (now - cached.checkedAt() < recheckMillis) {
+                return Optional.of(cached);
+            }
+        }
+
+        Optional<StoredToken> row = store.load(hash(token));
+        if (row.isEmpty()) {
+            if (cached != null) {
+                index.remove(token, cached);
+            }
+            return Optional.empty();
+        }
+        Principal found = new Principal(row.get().username(), row.get().roleMask(), row.get().expiresAt(), now);
+        cache(token, found);
+        // Guardado antes da conferência: ou a revogação vê a entrada, ou esta vê a revogação
+        if (revokedSince(token, found.username(), now)) {
+            index.remove(token, found);
+            return Optional.empty();
+        }
+        return Optional.of(found);
+    }
+
+    public void revoke(String token) {
+        store.delete(hash(token));
+        AfterCommit.run(() -> {
+            revokedTokens.put(token, System.currentTimeMillis());
+            index.remove(token);
+        });
+    }
+
+    /**
+     * Revoga todos os tokens do usuário (desabilitado ou com papel alterado).
+     */
+    public int revokeAll(String username) {
+        int deleted = store.deleteByUsername(username);
+        AfterCommit.run(() -> {
+            revokedUsers.put(username, System.currentTimeMillis());
+            index.values().removeIf(principal -> principal.username().equals(username));
+        });
+        return deleted;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reference-token.cleanup-interval:60000}")
+    public void deleteExpired() {
+        long now = System.currentTimeMillis();
+        index.values().removeIf(principal -> principal.expiresAt() <= now);
+        revokedTokens.values().removeIf(revokedAt -> now - revokedAt > REVOCATION_WINDOW);
+        revokedUsers.values().removeIf(revokedAt -> now - revokedAt > REVOCATION_WINDOW);
+        int removed = store.deleteExpired(now);
+        if (removed > 0) {
+            logger.debug("{} tokens de referência expirados removidos", removed);
+        }
+    }
+
+    private boolean revokedSince(String token, String username, long since) {
+        Long tokenRevokedAt = revokedTokens.get(token);
+        Long userRevokedAt = revokedUsers.get(username);
+        return tokenRevokedAt != null && tokenRevokedAt >= since
+                || userRevokedAt != null && userRevokedAt >= since;
+    }
+
+    private void cache(String token, Principal principal) {
+        if (index.size() >= maxEntries) {
+            evict();
+        }
+        index.put(token, principal);
+    }
+
+    /**
+     * Abre espaço no índice: primeiro os expirados e, se não bastar, um décimo das
+     * entradas. Os removidos continuam válidos no banco.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        index.values().removeIf(principal -> principal.expiresAt() <= now);
+        int excess = index.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<Principal> iterator = index.values().iterator();
+        while (excess-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
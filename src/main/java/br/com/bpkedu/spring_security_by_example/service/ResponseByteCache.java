@@ -0,0 +1,141 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU de respostas já serializadas (e possivelmente comprimidas com gzip),
+ * limitado pelo número de entradas e pelo total de bytes guardados (corpos e chaves).
+ * <p>
+ * Cada entrada carrega a {@link CatalogVersion} lida antes da consulta que a
+ * produziu; uma entrada de versão anterior à atual é tratada como ausente.
+ * A versão só enxerga as escritas feitas por este nó, então toda entrada também
+ * expira após {@code app.response-cache.ttl}: escritas de outros nós ou direto no
+ * banco aparecem no máximo depois desse intervalo.
+ */
+@Component
+public class ResponseByteCache {
+
+    /**
+     * {@code contentType} é o tipo negociado a partir do Accept, não o header cru.
+     */
+    public record Key(String path, String query, String contentType, boolean gzip) {
+    }
+
+    public record Entry(byte[] body, String contentType, boolean gzipped, long version) {
+    }
+
+    private record Stored(Entry entry, long storedAt, long bytes) {
+    }
+
+    private final CatalogVersion catalogVersion;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Key, Stored> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private long totalBytes;
+    private long entriesVersion;
+
+    public ResponseByteCache(CatalogVersion catalogVersion, MeterRegistry registry,
+                             @Value("${app.response-cache.max-size:16MB}") DataSize maxSize,
+                             @Value("${app.response-cache.max-entries:1000}") int maxEntries,
+                             @Value("${app.response-cache.ttl:5s}") Duration ttl) {
+        this.catalogVersion = catalogVersion;
+        this.maxBytes = maxSize.toBytes();
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.hits = Counter.builder("response.cache.requests").tag("result", "hit")
+                .description("Consultas ao cache de respostas serializadas").register(registry);
+        this.misses = Counter.builder("response.cache.requests").tag("result", "miss")
+                .description("Consultas ao cache de respostas serializadas").register(registry);
+        Gauge.builder("response.cache.size", this, ResponseByteCache::totalBytes)
+                .description("Bytes ocupados pelas entradas em cache (corpos e chaves)")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public Entry get(Key key) {
+        Entry entry = null;
+        synchronized (entries) {
+            clearIfStale(catalogVersion.current());
+            Stored stored = entries.get(key);
+            if (stored != null) {
+                if (System.nanoTime() - stored.storedAt() < ttlNanos) {
+                    entry = stored.entry();
+                } else {
+                    entries.remove(key);
+                    totalBytes -= stored.bytes();
+                }
+            }
+        }
+        (entry != null ? hits : misses).increment();
+        return entry;
+    }
+
+    /**
+     * Guarda a resposta se ela ainda corresponder à versão atual e couber no limite.
+     */
+    public void put(Key key, Entry entry) {
+        long bytes = bytes(key, entry);
+        if (bytes > maxBytes || maxEntries <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            long version = catalogVersion.current();
+            if (entry.version() != version) {
+                return;
+            }
+            clearIfStale(version);
+            Stored previous = entries.put(key, new Stored(entry, System.nanoTime(), bytes));
+            if (previous != null) {
+                totalBytes -= previous.bytes();
+            }
+            totalBytes += bytes;
+
+            Iterator<Stored> eldest = entries.values().iterator();
+            while ((totalBytes > maxBytes || entries.size() > maxEntries) && eldest.hasNext()) {
+                totalBytes -= eldest.next().bytes();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Tamanho aproximado da entrada: o corpo mais os textos da chave e o Content-Type,
+     * que em consultas com muitos IDs podem ser maiores que o próprio corpo.
+     */
+    private static long bytes(Key key, Entry entry) {
+        return entry.body().length + length(key.path()) + length(key.query())
+                + length(key.contentType()) + length(entry.contentType());
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private void clearIfStale(long version) {
+        // Uma escrita no catálogo invalida todas as entradas de uma vez
+        if (version != entriesVersion) {
+            entries.clear();
+            totalBytes = 0;
+            entriesVersion = version;
+        }
+    }
+
+    private double totalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro das authorities da aplicação.
+ * <p>
+ * Cada authority conhecida existe em uma única instância imutável e o conjunto de
+ * authorities de cada papel conhecido é calculado uma vez. Nomes desconhecidos não são
+ * guardados (o registro não cresce com valores vindos de fora). Os papéis conhecidos têm
+ * um bit fixo, usado na codificação compacta do token ({@link #mask} / {@link #fromMask}).
+ */
+public final class RoleAuthorities {
+
+    public static final String ADMIN = "ROLE_ADMIN";
+    public static final String USER = "ROLE_USER";
+
+    /**
+     * Papéis conhecidos; a posição no array é o bit na máscara. Só acrescente no final.
+     */
+    private static final String[] ROLES = {ADMIN, USER};
+
+    private static final GrantedAuthority[] AUTHORITIES = new GrantedAuthority[ROLES.length];
+    private static final List<List<GrantedAuthority>> BY_MASK;
+    private static final Map<String, GrantedAuthority> INTERNED;
+    private static final Map<String, List<GrantedAuthority>> BY_ROLE;
+
+    static {
+        Map<String, GrantedAuthority> interned = new HashMap<>();
+        Map<String, List<GrantedAuthority>> byRole = new HashMap<>();
+        for (int i = 0; i < ROLES.length; i++) {
+            AUTHORITIES[i] = new SimpleGrantedAuthority(ROLES[i]);
+            interned.put(ROLES[i], AUTHORITIES[i]);
+            byRole.put(ROLES[i], List.of(AUTHORITIES[i]));
+            byRole.put(ROLES[i].substring("ROLE_".length()), List.of(AUTHORITIES[i]));
+        }
+        INTERNED = Map.copyOf(interned);
+        BY_ROLE = Map.copyOf(byRole);
+        List<List<GrantedAuthority>> byMask = new ArrayList<>(1 << ROLES.length);
+        for (int mask = 0; mask < 1 << ROLES.length; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>(ROLES.length);
+            for (int i = 0; i < ROLES.length; i++) {
+                if ((mask & 1 << i) != 0) {
+                    authorities.add(AUTHORITIES[i]);
+                }
+            }
+            byMask.add(List.copyOf(authorities));
+        }
+        BY_MASK = List.copyOf(byMask);
+    }
+
+    private RoleAuthorities() {
+    }
+
+    public static boolean isKnown(String authority) {
+        return authority != null && bit(authority) >= 0;
+    }
+
+    /**
+     * Authorities de um valor de {@code User.role}, com ou sem o prefixo ROLE_.
+     */
+    public static List<GrantedAuthority> forRole(String role) {
+        List<GrantedAuthority> authorities = BY_ROLE.get(role);
+        if (authorities != null) {
+            return authorities;
+        }
+        // Papel fora da lista: instância nova, sem cache
+        return List.of(new SimpleGrantedAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role));
+    }
+
+    /**
+     * Instância compartilhada da authority com esse nome, ou uma nova se o nome não for conhecido.
+     */
+    public static GrantedAuthority authority(String name) {
+        GrantedAuthority authority = INTERNED.get(name);
+        return authority != null ? authority : new SimpleGrantedAuthority(name);
+    }
+
+    /**
+     * Máscara de bits dos papéis conhecidos; authorities desconhecidas são ignoradas.
+     */
+    public static int mask(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            int bit = bit(authority.getAuthority());
+            if (bit >= 0) {
+                mask |= 1 << bit;
+            }
+        }
+        return mask;
+    }
+
+    public static List<GrantedAuthority> fromMask(int mask) {
+        if (mask < 0 || mask >= BY_MASK.size()) {
+            throw new IllegalArgumentException("Máscara de papéis inválida: " + mask);
+        }
+        return BY_MASK.get(mask);
+    }
+
+    private static int bit(String authority) {
+        for (int i = 0; i < ROLES.length; i++) {
+            if (ROLES[i].equals(authority)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,175 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.authorization.event.AuthorizationDeniedEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log de auditoria de segurança estruturado (uma linha JSON por evento).
+ * <p>
+ * A thread da requisição apenas enfileira o evento em um buffer circular
+ * limitado; a formatação e a escrita no arquivo (logger {@code security.audit},
+ * configurado com rolagem no {@code logback-spring.xml}) acontecem em uma
+ * thread dedicada. Quando o buffer está cheio o evento é descartado e o
+ * contador {@code security.audit.dropped} é incrementado, sem nunca bloquear
+ * a requisição.
+ */
+@Service
+public class SecurityAuditService implements DisposableBean {
+
+    private static final Logger auditLogger = LoggerFactory.getLogger("security.audit");
+    private static final Logger logger = LoggerFactory.getLogger(SecurityAuditService.class);
+    private static final int DRAIN_BATCH = 256;
+
+    public enum EventType { LOGIN_SUCCESS, LOGIN_FAILURE, TOKEN_REJECTED, ACCESS_DENIED }
+
+    private record AuditEvent(long timestamp, EventType type, String username, String remoteAddress, String detail) {
+    }
+
+    private final BlockingQueue<AuditEvent> buffer;
+    private final Counter dropped;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public SecurityAuditService(MeterRegistry registry,
+                                @Value("${security.audit.buffer-size:8192}") int bufferSize) {
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.dropped = Counter.builder("security.audit.dropped")
+                .description("Eventos de auditoria descartados por buffer cheio")
+                .register(registry);
+        Gauge.builder("security.audit.pending", buffer, BlockingQueue::size)
+                .description("Eventos de auditoria aguardando escrita")
+                .register(registry);
+
+        this.writer = new Thread(this::drainLoop, "security-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void record(EventType type, String username, String remoteAddress, String detail) {
+        if (!buffer.offer(new AuditEvent(System.currentTimeMillis(), type, username, remoteAddress, detail))) {
+            dropped.increment();
+        }
+    }
+
+    public void tokenRejected(HttpServletRequest request) {
+        record(EventType.TOKEN_REJECTED, null, request.getRemoteAddr(), request.getRequestURI());
+    }
+
+    @EventListener
+    public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+        Authentication authentication = event.getAuthentication();
+        record(EventType.LOGIN_SUCCESS, authentication.getName(), remoteAddress(authentication), null);
+    }
+
+    @EventListener
+    public void onAuthenticationFailure(AbstractAuthenticationFailureEvent event) {
+        Authentication authentication = event.getAuthentication();
+        record(EventType.LOGIN_FAILURE, authentication.getName(), remoteAddress(authentication),
+                event.getException().getClass().getSimpleName());
+    }
+
+    @EventListener
+    public void onAccessDenied(AuthorizationDeniedEvent<?> event) {
+        Authentication authentication = event.getAuthentication().get();
+        String username = authentication != null ? authentication.getName() : null;
+        Object source = event.getSource();
+        if (source instanceof HttpServletRequest request) {
+            record(EventType.ACCESS_DENIED, username, request.getRemoteAddr(),
+                    request.getMethod() + " " + request.getRequestURI());
+        } else {
+            record(EventType.ACCESS_DENIED, username, remoteAddress(authentication), String.valueOf(source));
+        }
+    }
+
+    private static String remoteAddress(Authentication authentication) {
+        if (authentication != null && authentication.getDetails() instanceof WebAuthenticationDetails details) {
+            return details.getRemoteAddress();
+        }
+        return null;
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(DRAIN_BATCH);
+        StringBuilder line = new StringBuilder(256);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AuditEvent first = buffer.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, DRAIN_BATCH - 1);
+                for (AuditEvent event : batch) {
+                    auditLogger.info(format(event, line));
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao escrever evento de auditoria", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static String format(AuditEvent event, StringBuilder line) {
+        line.setLength(0);
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.timestamp())).append('"');
+        line.append(",\"event\":\"").append(event.type()).append('"');
+        appendField(line, "user", event.username());
+        appendField(line, "remote", event.remoteAddress());
+        appendField(line, "detail", event.detail());
+        return line.append('}').toString();
+    }
+
+    private static void appendField(StringBuilder line, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(2));
+    }
+}
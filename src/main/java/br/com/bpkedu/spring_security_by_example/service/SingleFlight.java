@@ -0,0 +1,86 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa cargas concorrentes da mesma chave em uma só.
+ * <p>
+ * A primeira thread a pedir uma chave executa o loader; as que chegam enquanto a
+ * carga está em andamento esperam (até {@code timeout}) e recebem o mesmo resultado
+ * ou a mesma exceção. Nada é guardado depois que a carga termina: isto não é um cache.
+ * O valor é compartilhado entre as threads: o loader deve devolver um snapshot desligado
+ * do contexto de persistência, que ninguém altera.
+ * <p>
+ * Quem escreve chama {@link #forget(Object)} depois do commit: a carga em andamento, que
+ * pode ter lido o estado anterior, deixa de receber novas threads, e só entra em uma
+ * carga quem chegar depois dela ter começado após a escrita.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final Runnable onCoalesced;
+
+    /**
+     * @param onCoalesced chamado para cada chamada atendida por uma carga já em andamento
+     */
+    public SingleFlight(Duration timeout, Runnable onCoalesced) {
+        this.timeoutNanos = timeout.toNanos();
+        this.onCoalesced = onCoalesced;
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            onCoalesced.run();
+            return await(key, existing);
+        }
+
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Desliga a chave da carga em andamento; quem já espera por ela continua esperando,
+     * quem chegar depois inicia uma carga nova.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    private V await(K key, CompletableFuture<V> call) {
+        try {
+            return call.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Tempo esgotado aguardando a carga em andamento de " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando a carga em andamento de " + key, e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Gera usuários e produtos sintéticos para testes de capacidade.
+ * <p>
+ * Os dados são determinísticos para uma mesma semente ({@code app.seed.random-seed}):
+ * cada bloco usa um {@link Random} derivado da semente e do índice inicial do bloco.
+ * A senha de {@code seed-user-N} é {@code password-N}; as senhas são codificadas em
+ * paralelo com um BCrypt de força reduzida ({@code app.seed.password-strength}) e as
+ * linhas são inseridas via JDBC em lotes, uma transação por bloco.
+ */
+@Service
+public class SyntheticDataSeeder {
+
+    public static final String USERNAME_PREFIX = "seed-user-";
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataSeeder.class);
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (username, password, email, role, enabled, failed_attempts) VALUES (?, ?, ?, ?, TRUE, 0)";
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO product (name, description, price, quantity) VALUES (?, ?, ?, ?)";
+    private static final String[] ADJECTIVES = {"Básico", "Premium", "Compacto", "Profissional", "Ultra", "Eco"};
+    private static final String[] NOUNS = {"Smartphone", "Notebook", "Monitor", "Teclado", "Mouse", "Fone", "Câmera"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+
+    @Value("${app.seed.users:0}")
+    private int users;
+
+    @Value("${app.seed.products:0}")
+    private int products;
+
+    @Value("${app.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${app.seed.password-strength:4}")
+    private int passwordStrength;
+
+    @Value("${app.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.seed.chunk-size:10000}")
+    private int chunkSize;
+
+    public SyntheticDataSeeder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               CatalogVersion catalogVersion) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogVersion = catalogVersion;
+    }
+
+    public boolean isEnabled() {
+        return users > 0 || products > 0;
+    }
+
+    public void seed() {
+        if (users > 0) {
+            seedUsers();
+        }
+        if (products > 0) {
+            seedProducts();
+        }
+    }
+
+    private void seedUsers() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username LIKE ?", Integer.class, USERNAME_PREFIX + "%");
+        if (existing != null && existing > 0) {
+            logger.info("Usuários sintéticos já existem ({}), seed ignorado", existing);
+            return;
+        }
+
+        long start = System.nanoTime();
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(passwordStrength);
+        for (int chunkStart = 0; chunkStart < users; chunkStart += chunkSize) {
+            int first = chunkStart;
+            int size = Math.min(chunkSize, users - chunkStart);
+
+            // BCrypt é o gargalo: codifica o bloco em paralelo antes de abrir a transação
+            String[] hashes = new String[size];
+            IntStream.range(0, size).parallel()
+                    .forEach(i -> hashes[i] = encoder.encode("password-" + (first + i)));
+
+            Random random = new Random(randomSeed + first);
+            List<Object[]> rows = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String username = USERNAME_PREFIX + (first + i);
+                String role = random.nextInt(20) == 0 ? "ROLE_ADMIN" : "ROLE_USER";
+                rows.add(new Object[]{username, hashes[i], username + "@example.com", role});
+            }
+            insert(INSERT_USER, rows);
+        }
+        logger.info("{} usuários sintéticos criados em {} ms", users, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void seedProducts() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Integer.class);
+        int existing = count != null ? count : 0;
+        if (existing >= products) {
+            logger.info("Catálogo já possui {} produtos, seed ignorado", existing);
+            return;
+        }
+
+        // Completa o catálogo até app.seed.products: as linhas já existentes contam como
+        // os primeiros índices, e cada bloco gera sempre a mesma sequência de linhas
+        long start = System.nanoTime();
+        for (int chunkStart = existing / chunkSize * chunkSize; chunkStart < products; chunkStart += chunkSize) {
+            int size = Math.min(chunkSize, products - chunkStart);
+            Random random = new Random(randomSeed * 31 + chunkStart);
+            List<Object[]> rows = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String noun = NOUNS[random.nextInt(NOUNS.length)];
+                String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+                BigDecimal price = BigDecimal.valueOf(random.nextInt(100, 1_000_000), 2);
+                int quantity = random.nextInt(0, 1000);
+                if (chunkStart + i < existing) {
+                    continue;
+                }
+                rows.add(new Object[]{
+                        noun + " " + adjective + " " + (chunkStart + i + 1),
+                        noun + " " + adjective.toLowerCase() + " gerado para testes de capacidade",
+                        price,
+                        quantity});
+            }
+            insert(INSERT_PRODUCT, rows);
+        }
+        catalogVersion.bump();
+        logger.info("{} produtos sintéticos criados em {} ms", products - existing, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())));
+            }
+        });
+    }
+}
@@ -1,6 +1,9 @@
 package br.com.bpkedu.spring_security_by_example.service;
 
+import br.com.bpkedu.spring_security_by_example.service.MetricsService.TokenOutcome;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -11,58 +14,142 @@ import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class TokenService {
 
+    private static final String ROLES_CLAIM = "roles";
+    private static final String ROLE_MASK_CLAIM = "r";
+
     @Value("${jwt.expiration}")
     private String expiration;
 
     @Value("${jwt.secret}")
     private String secret;
 
+    /**
+     * Codificação compacta: papéis como máscara de bits no claim {@code r}
+     * (ver {@link RoleAuthorities}) em vez da lista de nomes no claim {@code roles}.
+     * Tokens nesse formato são autenticados pelos papéis do próprio token ({@link #parseToken}).
+     */
+    @Value("${jwt.compact:false}")
+    private boolean compact;
+
+    private final MetricsService metricsService;
+
+    public TokenService(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
     public String generateToken(Authentication authentication) {
+        long start = System.nanoTime();
+        try {
+            String token = buildToken(authentication);
+            metricsService.recordTokenSign(TokenOutcome.SUCCESS, start);
+            return token;
+        } catch (RuntimeException e) {
+            metricsService.recordTokenSign(TokenOutcome.ERROR, start);
+            throw e;
+        }
+    }
+
+    private String buildToken(Authentication authentication) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + Long.parseLong(expiration));
         
         String username = authentication.getName();
-        String roles = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(","));
-
         Key key = Keys.hmacShaKeyFor(secret.getBytes());
 
-        return Jwts.builder()
-                .setSubject(username)
-                .claim("roles", roles)
-                .setIssuedAt(now)
+        JwtBuilder builder = Jwts.builder().setSubject(username);
+        if (compact) {
+            // iat não é usado na validação e fica de fora do formato compacto
+            builder.claim(ROLE_MASK_CLAIM, RoleAuthorities.mask(authentication.getAuthorities()));
+        } else {
+            builder.claim(ROLES_CLAIM, authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.joining(",")))
+                    .setIssuedAt(now);
+        }
+
+        return builder
                 .setExpiration(expiryDate)
                 .signWith(key, SignatureAlgorithm.HS512)
                 .compact();
     }
 
     public boolean validateToken(String token) {
+        long start = System.nanoTime();
         try {
             Key key = Keys.hmacShaKeyFor(secret.getBytes());
             Jwts.parserBuilder()
                 .setSigningKey(key)
                 .build()
                 .parseClaimsJws(token);
+            metricsService.recordTokenVerify(TokenOutcome.SUCCESS, start);
             return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            metricsService.recordTokenVerify(TokenOutcome.INVALID, start);
+            return false;
         } catch (Exception e) {
+            metricsService.recordTokenVerify(TokenOutcome.ERROR, start);
             return false;
         }
     }
 
+    /**
+     * Valida o token e extrai seus dados com uma única verificação de assinatura.
+     * Vazio se o token for inválido ou expirado.
+     */
+    public Optional<TokenClaims> parseToken(String token) {
+        long start = System.nanoTime();
+        try {
+            Key key = Keys.hmacShaKeyFor(secret.getBytes());
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            Integer mask = claims.get(ROLE_MASK_CLAIM, Integer.class);
+            List<GrantedAuthority> authorities = mask != null ? RoleAuthorities.fromMask(mask) : null;
+            metricsService.recordTokenVerify(TokenOutcome.SUCCESS, start);
+            return Optional.of(new TokenClaims(claims.getSubject(), authorities));
+        } catch (JwtException | IllegalArgumentException e) {
+            metricsService.recordTokenVerify(TokenOutcome.INVALID, start);
+            return Optional.empty();
+        } catch (Exception e) {
+            metricsService.recordTokenVerify(TokenOutcome.ERROR, start);
+            return Optional.empty();
+        }
+    }
+
     public String getUsernameFromToken(String token) {
-        Key key = Keys.hmacShaKeyFor(secret.getBytes());
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        long start = System.nanoTime();
+        try {
+            Key key = Keys.hmacShaKeyFor(secret.getBytes());
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            metricsService.recordTokenVerify(TokenOutcome.SUCCESS, start);
+            return claims.getSubject();
+        } catch (JwtException | IllegalArgumentException e) {
+            metricsService.recordTokenVerify(TokenOutcome.INVALID, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Dados de um token válido. {@code authorities} só é preenchido no formato compacto
+     * (claim {@code r}); no formato padrão os papéis vêm do usuário carregado do banco.
+     */
+    public record TokenClaims(String username, List<GrantedAuthority> authorities) {
 
-        return claims.getSubject();
+        public boolean hasAuthorities() {
+            return authorities != null;
+        }
     }
-} 
\ No newline at end of file
+}
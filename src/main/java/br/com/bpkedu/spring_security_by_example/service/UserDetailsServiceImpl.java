@@ -2,35 +2,61 @@ package br.com.bpkedu.spring_security_by_example.service;
 
 import br.com.bpkedu.spring_security_by_example.domain.User;
 import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService.CoalescedLookup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.Optional;
+
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
     
     private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
     private final UserRepository userRepository;
+    private final LoginAttemptService loginAttemptService;
+    private final MetricsService metricsService;
+    private final SingleFlight<String, Optional<User>> userLookups;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, LoginAttemptService loginAttemptService,
+                                  MetricsService metricsService,
+                                  @Value("${app.lookup.coalescing-timeout:5s}") Duration coalescingTimeout) {
         this.userRepository = userRepository;
+        this.loginAttemptService = loginAttemptService;
+        this.metricsService = metricsService;
+        this.userLookups = new SingleFlight<>(coalescingTimeout,
+                () -> metricsService.coalescedCall(CoalescedLookup.USER_DETAILS));
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         logger.debug("Tentando autenticar usuário: {}", username);
-        
-        return userRepository.findByUsername(username)
-            .map(user -> {
-                logger.debug("Usuário encontrado: {}, Role: {}", user.getUsername(), user.getRole());
-                return new UserSecurity(user);
-            })
-            .orElseThrow(() -> {
-                logger.debug("Usuário não encontrado: {}", username);
-                return new UsernameNotFoundException("Usuário não encontrado: " + username);
-            });
+        long start = System.nanoTime();
+
+        // Logins e requisições simultâneas do mesmo usuário compartilham a consulta (e a cópia)
+        User user = userLookups.load(username,
+                () -> userRepository.findByUsername(username).map(User::detachedCopy)).orElse(null);
+        metricsService.recordUserLoad(user != null, start);
+        if (user == null) {
+            logger.debug("Usuário não encontrado: {}", username);
+            throw new UsernameNotFoundException("Usuário não encontrado: " + username);
+        }
+
+        logger.debug("Usuário encontrado: {}, Role: {}", user.getUsername(), user.getRole());
+        loginAttemptService.restore(user);
+        return new UserSecurity(user);
+    }
+
+    /**
+     * Chamado depois do commit de uma alteração do usuário, para que a próxima
+     * autenticação não aproveite uma consulta iniciada antes dela.
+     */
+    public void evict(String username) {
+        userLookups.forget(username);
     }
-}
\ No newline at end of file
+}
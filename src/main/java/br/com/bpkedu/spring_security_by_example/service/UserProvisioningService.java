@@ -0,0 +1,338 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import br.com.bpkedu.spring_security_by_example.domain.User;
+import br.com.bpkedu.spring_security_by_example.dto.BulkUserResultDTO;
+import br.com.bpkedu.spring_security_by_example.dto.BulkUserResultDTO.Status;
+import br.com.bpkedu.spring_security_by_example.dto.UserCreateDTO;
+import br.com.bpkedu.spring_security_by_example.dto.UserDTO;
+import br.com.bpkedu.spring_security_by_example.dto.UserUpdateDTO;
+import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Cadastro e manutenção de usuários pelo administrador.
+ * <p>
+ * O cadastro em lote lê NDJSON (um {@link UserCreateDTO} por linha) e processa as
+ * linhas em blocos: a unicidade de {@code username} e {@code email} é verificada com
+ * uma consulta {@code IN} por bloco, as senhas são codificadas em um pool limitado
+ * compartilhado entre as requisições, e o resultado de cada linha é escrito e enviado
+ * ao cliente assim que o bloco termina.
+ */
+@Service
+public class UserProvisioningService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProvisioningService.class);
+
+    private final UserRepository userRepository;
+    private final ReferenceTokenService referenceTokenService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectReader lineReader;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService hashingPool;
+    private final int batchSize;
+
+    public UserProvisioningService(UserRepository userRepository,
+                                   ReferenceTokenService referenceTokenService,
+                                   UserDetailsServiceImpl userDetailsService,
+                                   PasswordEncoder passwordEncoder,
+                                   Validator validator,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.users.bulk.batch-size:500}") int batchSize,
+                                   @Value("${app.users.bulk.hashing-threads:0}") int hashingThreads) {
+        this.userRepository = userRepository;
+        this.referenceTokenService = referenceTokenService;
+        this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.lineReader = objectMapper.readerFor(UserCreateDTO.class);
+        this.batchSize = batchSize;
+
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(batchSize * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public boolean exists(UserCreateDTO dto) {
+        return userRepository.existsByUsernameOrEmail(dto.getUsername(), dto.getEmail());
+    }
+
+    public boolean isValidRole(String role) {
+        return role != null && RoleAuthorities.isKnown(normalizeRole(role));
+    }
+
+    public UserDTO create(UserCreateDTO dto) {
+        User user = new User(dto.getUsername(), passwordEncoder.encode(dto.getPassword()),
+                dto.getEmail(), normalizeRole(dto.getRole()));
+        return UserDTO.from(userRepository.save(user));
+    }
+
+    @Transactional
+    public Optional<UserDTO> update(Long id, UserUpdateDTO dto) {
+        return userRepository.findById(id).map(user -> {
+            if (dto.getEnabled() != null) {
+                user.setEnabled(dto.getEnabled());
+            }
+            String previousRole = user.getRole();
+            if (dto.getRole() != null) {
+                user.setRole(normalizeRole(dto.getRole()));
+            }
+            UserDTO updated = UserDTO.from(userRepository.save(user));
+            // Tokens de referência guardam os papéis da emissão: revogados ao desabilitar ou trocar o papel
+            if (!user.isEnabled() || !user.getRole().equals(previousRole)) {
+                referenceTokenService.revokeAll(user.getUsername());
+            }
+            String username = user.getUsername();
+            AfterCommit.run(() -> userDetailsService.evict(username));
+            return updated;
+        });
+    }
+
+    /**
+     * Processa o NDJSON de entrada e escreve um {@link BulkUserResultDTO} por linha na saída.
+     * <p>
+     * Uma falha de leitura da entrada (ex.: corpo acima do limite) antes do primeiro bloco
+     * enviado é propagada, e vira o status da resposta. Depois disso a resposta já saiu
+     * como 200, então a falha é informada em um registro final com status {@code ERROR};
+     * as linhas lidas e ainda não processadas são descartadas.
+     */
+    public void bulkCreate(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingUser> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        long processed = 0;
+
+        String line;
+        while (true) {
+            try {
+                line = reader.readLine();
+            } catch (IOException e) {
+                if (processed == 0) {
+                    throw e;
+                }
+                logger.warn("Cadastro em lote interrompido na linha {}: {}", lineNumber + 1, e.getMessage());
+                write(output, new BulkUserResultDTO(lineNumber + 1, null, Status.ERROR, null,
+                        "Leitura interrompida: " + e.getMessage(), processed));
+                output.flush();
+                return;
+            }
+            if (line == null) {
+                break;
+            }
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            batch.add(parse(lineNumber, line, seenUsernames, seenEmails));
+            if (batch.size() == batchSize) {
+                processed = processBatch(batch, processed, output);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            processBatch(batch, processed, output);
+        }
+    }
+
+    private PendingUser parse(long lineNumber, String line, Set<String> seenUsernames, Set<String> seenEmails) {
+        UserCreateDTO dto;
+        try {
+            dto = lineReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return PendingUser.rejected(lineNumber, null, Status.INVALID, "JSON inválido");
+        }
+
+        Set<ConstraintViolation<UserCreateDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return PendingUser.rejected(lineNumber, dto.getUsername(), Status.INVALID, message);
+        }
+        if (!isValidRole(dto.getRole())) {
+            return PendingUser.rejected(lineNumber, dto.getUsername(), Status.INVALID, "Role inválida: " + dto.getRole());
+        }
+        // Duplicados dentro do próprio arquivo
+        if (!seenUsernames.add(dto.getUsername()) || !seenEmails.add(dto.getEmail())) {
+            return PendingUser.rejected(lineNumber, dto.getUsername(), Status.DUPLICATE, "Duplicado no lote");
+        }
+        return new PendingUser(lineNumber, dto);
+    }
+
+    private long processBatch(List<PendingUser> batch, long processed, OutputStream output) throws IOException {
+        List<PendingUser> accepted = batch.stream().filter(PendingUser::isPending).toList();
+
+        if (!accepted.isEmpty()) {
+            // Unicidade verificada no banco com uma consulta por coluna para o bloco inteiro
+            Set<String> existingUsernames = userRepository.findExistingUsernames(
+                    accepted.stream().map(pending -> pending.dto.getUsername()).toList());
+            Set<String> existingEmails = userRepository.findExistingEmails(
+                    accepted.stream().map(pending -> pending.dto.getEmail()).toList());
+
+            List<PendingUser> toCreate = new ArrayList<>(accepted.size());
+            for (PendingUser pending : accepted) {
+                if (existingUsernames.contains(pending.dto.getUsername())
+                        || existingEmails.contains(pending.dto.getEmail())) {
+                    pending.reject(Status.DUPLICATE, "Username ou email já cadastrado");
+                } else {
+                    toCreate.add(pending);
+                }
+            }
+            hashPasswords(toCreate);
+            save(toCreate);
+        }
+
+        for (PendingUser pending : batch) {
+            processed++;
+            BulkUserResultDTO result = new BulkUserResultDTO(pending.line,
+                    pending.dto != null ? pending.dto.getUsername() : pending.username,
+                    pending.status, pending.id, pending.message, processed);
+            write(output, result);
+        }
+        output.flush();
+        return processed;
+    }
+
+    private void write(OutputStream output, BulkUserResultDTO result) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(result));
+        output.write('\n');
+    }
+
+    private void hashPasswords(List<PendingUser> users) {
+        List<Future<String>> hashes = new ArrayList<>(users.size());
+        for (PendingUser pending : users) {
+            String password = pending.dto.getPassword();
+            hashes.add(hashingPool.submit(() -> passwordEncoder.encode(password)));
+        }
+        for (int i = 0; i < users.size(); i++) {
+            try {
+                users.get(i).encodedPassword = hashes.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Cadastro em lote interrompido", e);
+            } catch (ExecutionException e) {
+                users.get(i).reject(Status.ERROR, "Falha ao codificar a senha");
+            }
+        }
+    }
+
+    private void save(List<PendingUser> users) {
+        List<PendingUser> ready = users.stream().filter(PendingUser::isPending).toList();
+        if (ready.isEmpty()) {
+            return;
+        }
+        try {
+            List<User> saved = userRepository.saveAll(ready.stream().map(PendingUser::toUser).toList());
+            for (int i = 0; i < ready.size(); i++) {
+                ready.get(i).created(saved.get(i).getId());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Cadastro concorrente com os mesmos dados: repete linha a linha para isolar os conflitos
+            logger.debug("Conflito no bloco de cadastro, repetindo individualmente", e);
+            for (PendingUser pending : ready) {
+                try {
+                    pending.created(userRepository.save(pending.toUser()).getId());
+                } catch (DataIntegrityViolationException ex) {
+                    pending.reject(Status.DUPLICATE, "Username ou email já cadastrado");
+                }
+            }
+        }
+    }
+
+    private static String normalizeRole(String role) {
+        if (role == null) {
+            return null;
+        }
+        String upper = role.trim().toUpperCase();
+        return upper.startsWith("ROLE_") ? upper : "ROLE_" + upper;
+    }
+
+    @Override
+    public void destroy() {
+        hashingPool.shutdownNow();
+    }
+
+    private static final class PendingUser {
+        final long line;
+        final UserCreateDTO dto;
+        String username;
+        Status status;
+        String message;
+        String encodedPassword;
+        Long id;
+
+        PendingUser(long line, UserCreateDTO dto) {
+            this.line = line;
+            this.dto = dto;
+        }
+
+        static PendingUser rejected(long line, String username, Status status, String message) {
+            PendingUser pending = new PendingUser(line, null);
+            pending.username = username;
+            pending.reject(status, message);
+            return pending;
+        }
+
+        boolean isPending() {
+            return status == null;
+        }
+
+        void reject(Status status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        void created(Long id) {
+            this.status = Status.CREATED;
+            this.id = id;
+        }
+
+        User toUser() {
+            return new User(dto.getUsername(), encodedPassword, dto.getEmail(), normalizeRole(dto.getRole()));
+        }
+    }
+}
@@ -2,11 +2,10 @@ package br.com.bpkedu.spring_security_by_example.service;
 
 import br.com.bpkedu.spring_security_by_example.domain.User;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
-import java.util.List;
 
 public class UserSecurity implements UserDetails {
 
@@ -18,9 +17,8 @@ public class UserSecurity implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // Adiciona o prefixo ROLE_ se não existir
-        String role = user.getRole().startsWith("ROLE_") ? user.getRole() : "ROLE_" + user.getRole();
-        return List.of(new SimpleGrantedAuthority(role));
+        // Lista imutável compartilhada, sem alocação por chamada
+        return RoleAuthorities.forRole(user.getRole());
     }
 
     @Override
@@ -40,7 +38,8 @@ public class UserSecurity implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        Instant lockedUntil = user.getLockedUntil();
+        return lockedUntil == null || !lockedUntil.isAfter(Instant.now());
     }
 
     @Override
@@ -1,10 +1,40 @@
-DROP TABLE IF EXISTS users;
-
-CREATE TABLE users (
+-- Script idempotente: executado a cada inicialização (spring.sql.init)
+CREATE TABLE IF NOT EXISTS users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     username VARCHAR(50) NOT NULL UNIQUE,
     password VARCHAR(255) NOT NULL,
     email VARCHAR(100) NOT NULL UNIQUE,
     role VARCHAR(20) NOT NULL,
-    enabled BOOLEAN NOT NULL DEFAULT TRUE
-); 
\ No newline at end of file
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    failed_attempts INT NOT NULL DEFAULT 0,
+    locked_until TIMESTAMP
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS failed_attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS locked_until TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS product (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    price NUMERIC(38, 2),
+    quantity INT
+);
+
+CREATE TABLE IF NOT EXISTS security_sessions (
+    id VARCHAR(64) PRIMARY KEY,
+    data VARBINARY(2048) NOT NULL,
+    expires_at BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_security_sessions_expires_at ON security_sessions (expires_at);
+
+CREATE TABLE IF NOT EXISTS reference_tokens (
+    token_hash VARCHAR(64) PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    role_mask INT NOT NULL,
+    expires_at BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_reference_tokens_username ON reference_tokens (username);
+CREATE INDEX IF NOT EXISTS idx_reference_tokens_expires_at ON reference_tokens (expires_at);
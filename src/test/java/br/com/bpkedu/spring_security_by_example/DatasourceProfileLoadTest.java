@@ -0,0 +1,152 @@
+package br.com.bpkedu.spring_security_by_example;
+
+import br.com.bpkedu.spring_security_by_example.domain.Product;
+import br.com.bpkedu.spring_security_by_example.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a vazão do datasource padrão (H2 em memória, ddl-auto, Hikari sem ajustes)
+ * com o perfil {@code prod} (H2 em arquivo, pool dimensionado, batching do Hibernate).
+ * <p>
+ * A vazão depende da máquina e só é reportada; o que é verificado é o número de statements
+ * JDBC de uma operação: no {@code prod} os {@link #BATCH_SIZE} UPDATEs viram um único lote,
+ * enquanto os INSERTs continuam um a um (ids {@code IDENTITY}).
+ * <p>
+ * Execução: {@code ./mvnw test -Dtest=DatasourceProfileLoadTest -Dloadtest=true}
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class DatasourceProfileLoadTest {
+
+    private static final int THREADS = 8;
+    private static final int BATCH_SIZE = 50;
+    private static final long WARMUP_MILLIS = 5_000;
+    private static final long MEASURE_MILLIS = 15_000;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void compareDefaultAndProdProfiles() throws Exception {
+        Result defaults = run("default", new String[0],
+                "--security.audit.file=" + dataDir.resolve("audit-default.log"));
+        Result prod = run("prod", new String[]{"prod"},
+                "--spring.datasource.url=jdbc:h2:file:" + dataDir.resolve("loadtest") + ";QUERY_CACHE_SIZE=64",
+                "--security.audit.file=" + dataDir.resolve("audit-prod.log"));
+
+        System.out.printf("%n[datasource load test] default: %.0f ops/s, %d statements/op | "
+                        + "prod: %.0f ops/s, %d statements/op | ratio: %.2fx%n%n",
+                defaults.throughput(), defaults.statements(), prod.throughput(), prod.statements(),
+                prod.throughput() / defaults.throughput());
+        // Sem batching: um statement por INSERT e por UPDATE
+        assertThat(defaults.statements()).isEqualTo(2L * BATCH_SIZE);
+        // Com batching: INSERTs um a um e todos os UPDATEs em um único lote
+        assertThat(prod.statements()).isEqualTo(BATCH_SIZE + 1L);
+    }
+
+    private Result run(String label, String[] profiles, String... args) throws Exception {
+        String[] arguments = Arrays.copyOf(args, args.length + 2);
+        arguments[args.length] = "--spring.jpa.properties.hibernate.generate_statistics=true";
+        arguments[args.length + 1] = "--server.port=0";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringSecurityByExampleApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles(profiles)
+                .run(arguments)) {
+            ProductRepository repository = context.getBean(ProductRepository.class);
+            TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            Statistics statistics = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+
+            workload(repository, tx, WARMUP_MILLIS);
+            long ops = workload(repository, tx, MEASURE_MILLIS);
+            double throughput = ops * 1000.0 / MEASURE_MILLIS;
+
+            statistics.clear();
+            writeBatch(repository, tx, ThreadLocalRandom.current());
+            long statements = statistics.getPrepareStatementCount();
+
+            System.out.printf("[datasource load test] %s: %d ops in %d ms (%.0f ops/s), %d statements/op%n",
+                    label, ops, MEASURE_MILLIS, throughput, statements);
+            return new Result(throughput, statements);
+        }
+    }
+
+    /**
+     * Cada operação é uma escrita em lote de {@link #BATCH_SIZE} produtos, seguida de
+     * uma atualização e de {@link #BATCH_SIZE} leituras por ID.
+     */
+    private long workload(ProductRepository repository, TransactionTemplate tx, long millis) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long deadline = System.currentTimeMillis() + millis;
+        List<Future<Long>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                long ops = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.currentTimeMillis() < deadline) {
+                    List<Product> saved = writeBatch(repository, tx, random);
+                    for (Product product : saved) {
+                        repository.findById(product.getId());
+                    }
+                    ops++;
+                }
+                return ops;
+            }));
+        }
+
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return total;
+    }
+
+    private static List<Product> writeBatch(ProductRepository repository, TransactionTemplate tx,
+                                            ThreadLocalRandom random) {
+        return tx.execute(status -> {
+            List<Product> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(product(random));
+            }
+            List<Product> products = repository.saveAll(batch);
+            products.forEach(product -> product.setQuantity(product.getQuantity() + 1));
+            return products;
+        });
+    }
+
+    private record Result(double throughput, long statements) {
+    }
+
+    private static Product product(ThreadLocalRandom random) {
+        Product product = new Product();
+        product.setName("Produto " + random.nextInt(1_000_000));
+        product.setDescription("Produto gerado pelo teste de carga");
+        product.setPrice(BigDecimal.valueOf(random.nextInt(1, 100_000), 2));
+        product.setQuantity(random.nextInt(1, 500));
+        return product;
+    }
+}
@@ -0,0 +1,212 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.config.AccessRules.AccessRule;
+import br.com.bpkedu.spring_security_by_example.config.AccessRules.Chain;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Resposta de cada regra de {@link AccessRules} para anônimo, USER e ADMIN.
+ */
+@SpringBootTest(properties = "app.journal.dir=target/test-journal")
+@AutoConfigureMockMvc
+class AccessRulesTest {
+
+    private static final String PRODUCT = """
+            {"name": "Produto de teste", "description": "AccessRulesTest", "price": 10.00, "quantity": 1}
+            """;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private AccessRules accessRules;
+
+    // Actuator
+
+    @Test
+    @WithAnonymousUser
+    void actuatorHealthIsPublic() throws Exception {
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void actuatorRequiresAuthentication() throws Exception {
+        mvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void actuatorIsForbiddenToUser() throws Exception {
+        mvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void actuatorIsAllowedToAdmin() throws Exception {
+        mvc.perform(get("/actuator/metrics")).andExpect(status().isOk());
+    }
+
+    // API: administração de usuários (sem entry point na cadeia da API, anônimo recebe 403)
+
+    @Test
+    @WithAnonymousUser
+    void adminApiRequiresAuthentication() throws Exception {
+        mvc.perform(post("/api/admin/users").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void adminApiIsForbiddenToUser() throws Exception {
+        mvc.perform(post("/api/admin/users").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isForbidden());
+        mvc.perform(post("/api/admin/users/bulk").contentType(MediaType.APPLICATION_NDJSON).content(""))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adminApiIsAllowedToAdmin() throws Exception {
+        // Passa pela autorização e chega à validação do corpo
+        mvc.perform(post("/api/admin/users").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // API: produtos
+
+    @Test
+    @WithAnonymousUser
+    void productReadsRequireAuthentication() throws Exception {
+        mvc.perform(get("/api/products")).andExpect(status().isForbidden());
+        mvc.perform(get("/api/products/1")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void productReadsAreAllowedToUser() throws Exception {
+        mvc.perform(get("/api/products")).andExpect(status().isOk());
+        mvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON).content("{\"ids\": [1]}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void productWritesAreForbiddenToUser() throws Exception {
+        mvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON).content(PRODUCT))
+                .andExpect(status().isForbidden());
+        mvc.perform(put("/api/products/1").contentType(MediaType.APPLICATION_JSON).content(PRODUCT))
+                .andExpect(status().isForbidden());
+        mvc.perform(delete("/api/products/1")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void productWritesRequireAuthentication() throws Exception {
+        mvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON).content(PRODUCT))
+                .andExpect(status().isForbidden());
+        mvc.perform(delete("/api/products/1")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void productWritesAreAllowedToAdmin() throws Exception {
+        mvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON).content(PRODUCT))
+                .andExpect(status().isCreated());
+        mvc.perform(delete("/api/products/999999")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void authEndpointsArePublic() throws Exception {
+        mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"admin\", \"password\": \"admin\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void unmappedApiPathFallsThroughToAuthenticated() throws Exception {
+        mvc.perform(get("/api/unmapped")).andExpect(status().isForbidden());
+        mvc.perform(post("/api/admin")).andExpect(status().isForbidden());
+    }
+
+    // Web
+
+    @Test
+    @WithAnonymousUser
+    void webPagesRedirectAnonymousToLogin() throws Exception {
+        mvc.perform(get("/home")).andExpect(redirectedUrlPattern("**/login"));
+        mvc.perform(get("/admin")).andExpect(redirectedUrlPattern("**/login"));
+        mvc.perform(get("/login")).andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void webAdminIsForbiddenToUser() throws Exception {
+        mvc.perform(get("/home")).andExpect(status().isOk());
+        mvc.perform(get("/admin")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void webAdminIsAllowedToAdmin() throws Exception {
+        mvc.perform(get("/admin")).andExpect(status().isOk());
+    }
+
+    // Estrutura da tabela
+
+    @Test
+    void everyChainEndsWithACatchAllThatRequiresAuthentication() {
+        for (Chain chain : Chain.values()) {
+            List<AccessRule> rules = rulesOf(chain);
+            AccessRule last = rules.get(rules.size() - 1);
+            assertThat(last.matcher().matches(request("GET", "/qualquer/caminho/nao/mapeado")))
+                    .as("última regra de %s casa com qualquer requisição", chain).isTrue();
+            assertThat(last.access().kind())
+                    .as("última regra de %s não libera acesso", chain).isNotEqualTo(AccessRules.Access.Kind.PERMIT_ALL);
+        }
+    }
+
+    @Test
+    void noRuleIsShadowedByAnEarlierOne() {
+        // Os matchers do actuator dependem do contexto da aplicação na requisição
+        for (Chain chain : List.of(Chain.API, Chain.WEB)) {
+            List<AccessRule> rules = rulesOf(chain);
+            for (AccessRule rule : rules) {
+                MockHttpServletRequest sample = request(rule.method().equals("*") ? "GET" : rule.method(),
+                        rule.pattern().replace("{id}", "1").replace("**", "x"));
+                AccessRule first = rules.stream().filter(r -> r.matcher().matches(sample)).findFirst().orElseThrow();
+                assertThat(first).as("regra %s %s %s", chain, rule.method(), rule.pattern()).isEqualTo(rule);
+            }
+        }
+    }
+
+    private List<AccessRule> rulesOf(Chain chain) {
+        return accessRules.rules().stream().filter(rule -> rule.chain() == chain).toList();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,114 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import br.com.bpkedu.spring_security_by_example.service.LoginAttemptService;
+import br.com.bpkedu.spring_security_by_example.service.MetricsService;
+import br.com.bpkedu.spring_security_by_example.service.ReferenceTokenService;
+import br.com.bpkedu.spring_security_by_example.service.SecurityAuditService;
+import br.com.bpkedu.spring_security_by_example.service.TokenService;
+import br.com.bpkedu.spring_security_by_example.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private final MetricsService metricsService = new MetricsService(new SimpleMeterRegistry());
+    private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+    private final LoginAttemptService loginAttemptService = new LoginAttemptService(
+            mock(UserRepository.class), 2, 60_000, 900_000, 100, 100, 20, 60_000, 50);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void compactTokenIsAuthenticatedWithTheRolesOfClaimR() throws Exception {
+        TokenService tokenService = tokenService(true);
+        String token = tokenService.generateToken(authentication("maria", "ROLE_ADMIN", "ROLE_USER"));
+
+        Authentication result = filter(tokenService, token);
+
+        assertThat(result.getName()).isEqualTo("maria");
+        assertThat(result.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN", "ROLE_USER");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void compactTokenOfBlockedUserIsRejected() throws Exception {
+        TokenService tokenService = tokenService(true);
+        String token = tokenService.generateToken(authentication("maria", "ROLE_USER"));
+        loginAttemptService.unknownUserFailed("maria", "10.0.0.1");
+        loginAttemptService.unknownUserFailed("maria", "10.0.0.1");
+
+        assertThat(filter(tokenService, token)).isNull();
+    }
+
+    @Test
+    void standardTokenLoadsTheUser() throws Exception {
+        TokenService tokenService = tokenService(false);
+        String token = tokenService.generateToken(authentication("maria", "ROLE_USER"));
+        when(userDetailsService.loadUserByUsername("maria"))
+                .thenReturn(User.withUsername("maria").password("x").roles("ADMIN").build());
+
+        Authentication result = filter(tokenService, token);
+
+        // Os papéis vêm do banco, não do token
+        assertThat(result.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        verify(userDetailsService).loadUserByUsername("maria");
+    }
+
+    @Test
+    void tamperedTokenIsRejected() throws Exception {
+        TokenService tokenService = tokenService(true);
+        String token = tokenService.generateToken(authentication("maria", "ROLE_USER"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(filter(tokenService, tampered)).isNull();
+        verifyNoInteractions(userDetailsService);
+    }
+
+    private Authentication filter(TokenService tokenService, String token) throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenService, userDetailsService, metricsService,
+                mock(SecurityAuditService.class), mock(ReferenceTokenService.class), loginAttemptService);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setServletPath("/api/products");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private TokenService tokenService(boolean compact) {
+        TokenService tokenService = new TokenService(metricsService);
+        ReflectionTestUtils.setField(tokenService, "secret", SECRET);
+        ReflectionTestUtils.setField(tokenService, "expiration", "3600000");
+        ReflectionTestUtils.setField(tokenService, "compact", compact);
+        return tokenService;
+    }
+
+    private static Authentication authentication(String username, String... roles) {
+        return new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList(roles));
+    }
+}
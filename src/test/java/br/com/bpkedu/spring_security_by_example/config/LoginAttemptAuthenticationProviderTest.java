@@ -0,0 +1,101 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import br.com.bpkedu.spring_security_by_example.service.LoginAttemptService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class LoginAttemptAuthenticationProviderTest {
+
+    private final AtomicInteger hashes = new AtomicInteger();
+    private final LoginAttemptService loginAttemptService = new LoginAttemptService(
+            mock(UserRepository.class), 5, 60_000, 900_000, 100, 100, 3, 60_000, 5);
+    private final LoginAttemptAuthenticationProvider provider = provider();
+
+    @Test
+    void validLoginFromAnotherSourceSucceedsDuringASprayingAttack() {
+        spray();
+        assertThat(loginAttemptService.isUnderAttack()).isTrue();
+
+        Authentication result = provider.authenticate(login("maria", "senha123", "192.168.0.10"));
+
+        assertThat(result.isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void unknownUsernameSkipsPasswordHashingDuringAttack() {
+        spray();
+        int before = hashes.get();
+
+        assertThatThrownBy(() -> provider.authenticate(login("ghost", "x", "192.168.0.11")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(hashes.get()).isEqualTo(before);
+    }
+
+    @Test
+    void sourceAboveItsLimitIsRejected() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> provider.authenticate(login("maria", "errada", "10.0.0.1")))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+
+        assertThatThrownBy(() -> provider.authenticate(login("maria", "senha123", "10.0.0.1")))
+                .isInstanceOf(LockedException.class);
+        assertThat(provider.authenticate(login("maria", "senha123", "10.0.0.2")).isAuthenticated()).isTrue();
+    }
+
+    /**
+     * Uma tentativa por username inexistente, cada uma de um IP diferente, até passar do
+     * limite global dentro de um mesmo segundo.
+     */
+    private void spray() {
+        for (int i = 0; !loginAttemptService.isUnderAttack(); i++) {
+            String source = "10.1." + i / 250 + "." + i % 250;
+            assertThatThrownBy(() -> provider.authenticate(login("spray-" + source, "x", source)))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+    }
+
+    private LoginAttemptAuthenticationProvider provider() {
+        PasswordEncoder counting = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashes.incrementAndGet();
+                return NoOpPasswordEncoder.getInstance().encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashes.incrementAndGet();
+                return NoOpPasswordEncoder.getInstance().matches(rawPassword, encodedPassword);
+            }
+        };
+        LoginAttemptAuthenticationProvider provider = new LoginAttemptAuthenticationProvider(counting, loginAttemptService);
+        provider.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername("maria").password("senha123").roles("USER").build()));
+        return provider;
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String username, String password, String source) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(source);
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+        token.setDetails(new WebAuthenticationDetails(request));
+        return token;
+    }
+}
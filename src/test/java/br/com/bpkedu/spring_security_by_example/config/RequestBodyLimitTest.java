@@ -0,0 +1,124 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Corpos comprimidos acima do limite descomprimido, passando pela cadeia completa
+ * (filtros, Spring MVC e controllers).
+ */
+@SpringBootTest(properties = {
+        "app.journal.dir=target/test-journal",
+        "app.request-decompression.max-size=16KB",
+        "app.request-decompression.path-limits=/api/products/batch=1KB",
+        "app.users.bulk.batch-size=2"
+})
+@AutoConfigureMockMvc
+class RequestBodyLimitTest {
+
+    private static final String BULK = "/api/admin/users/bulk";
+    private static final String BATCH = "/api/products/batch";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void productBatchWithinLimitIsAccepted() throws Exception {
+        mvc.perform(gzipped(BATCH, MediaType.APPLICATION_JSON, "{\"ids\": [1, 2, 3]}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void oversizedProductBatchIsRejectedWith413() throws Exception {
+        String ids = "1, ".repeat(1_000) + "1";
+
+        mvc.perform(gzipped(BATCH, MediaType.APPLICATION_JSON, "{\"ids\": [" + ids + "]}"))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void oversizedBulkBodyIsRejectedWith413BeforeAnyResult() throws Exception {
+        // Uma única linha acima do limite: nada foi enviado quando o limite é atingido
+        String line = "{\"username\":\"grande\",\"email\":\"grande@example.com\",\"password\":\""
+                + "x".repeat(20_000) + "\",\"role\":\"USER\"}\n";
+
+        mvc.perform(gzipped(BULK, MediaType.APPLICATION_NDJSON, line))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void oversizedBulkBodyEndsStreamWithErrorRecord() throws Exception {
+        // Alguns usuários no início (processados e enviados) e linhas em branco até passar do limite
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            body.append("{\"username\":\"limite").append(i).append("\",\"email\":\"limite").append(i)
+                    .append("@example.com\",\"password\":\"senha123\",\"role\":\"USER\"}\n");
+        }
+        body.append((" ".repeat(1_000) + "\n").repeat(40));
+
+        MockHttpServletResponse response = mvc.perform(gzipped(BULK, MediaType.APPLICATION_NDJSON, body.toString()))
+                .andReturn().getResponse();
+
+        // Os primeiros blocos já foram enviados com 200: o limite aparece como a última linha
+        assertThat(response.getStatus()).isEqualTo(200);
+        List<JsonNode> results = response.getContentAsString().lines().map(this::readTree).toList();
+        assertThat(results).hasSizeGreaterThan(1);
+        JsonNode last = results.get(results.size() - 1);
+        assertThat(last.get("status").asText()).isEqualTo("ERROR");
+        assertThat(last.get("message").asText()).contains("limite");
+        assertThat(results.subList(0, results.size() - 1))
+                .allSatisfy(result -> assertThat(result.get("status").asText()).isEqualTo("CREATED"));
+        assertThat(last.get("processed").asLong()).isEqualTo(results.size() - 1);
+    }
+
+    private MockHttpServletRequestBuilder gzipped(String path, MediaType contentType, String body) throws IOException {
+        return post(path)
+                .servletPath(path)
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(gzip(body));
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
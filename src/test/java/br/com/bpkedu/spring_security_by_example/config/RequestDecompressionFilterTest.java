@@ -0,0 +1,135 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.config.RequestDecompressionFilter.BodyTooLargeException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class RequestDecompressionFilterTest {
+
+    private static final String BULK = "/api/admin/users/bulk";
+    private static final String BATCH = "/api/products/batch";
+    private static final String BODY = "{\"username\":\"maria\",\"email\":\"maria@example.com\"}\n".repeat(50);
+
+    private final RequestDecompressionFilter filter = new RequestDecompressionFilter(
+            List.of(BULK, BATCH), DataSize.ofKilobytes(64), List.of(BATCH + "=1KB"));
+
+    @Test
+    void decompressesGzipBody() throws Exception {
+        AtomicReference<HttpServletRequest> seen = new AtomicReference<>();
+
+        String body = readThrough(request(BULK, "gzip", gzip(BODY)), seen);
+
+        assertThat(body).isEqualTo(BODY);
+        assertThat(seen.get().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(seen.get().getContentLengthLong()).isEqualTo(-1);
+    }
+
+    @Test
+    void decompressesDeflateBody() throws Exception {
+        assertThat(readThrough(request(BULK, "deflate", deflate(BODY)), new AtomicReference<>())).isEqualTo(BODY);
+    }
+
+    @Test
+    void passesUncompressedBodiesThrough() throws Exception {
+        MockHttpServletRequest request = request(BULK, null, BODY.getBytes(StandardCharsets.UTF_8));
+        AtomicReference<HttpServletRequest> seen = new AtomicReference<>();
+
+        readThrough(request, seen);
+
+        assertThat(seen.get()).isSameAs(request);
+    }
+
+    @Test
+    void rejectsUnknownEncoding() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(BULK, "br", new byte[] {1, 2, 3}), response, (req, res) -> {
+            throw new AssertionError("não deveria chegar ao controller");
+        });
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+    }
+
+    @Test
+    void rejectsCorruptGzip() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(BULK, "gzip", "não é gzip".getBytes(StandardCharsets.UTF_8)), response, (req, res) -> {
+            throw new AssertionError("não deveria chegar ao controller");
+        });
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    void stopsOversizedBodyWithPathLimit() throws Exception {
+        // 50 linhas cabem no limite geral (64KB), mas não no do lote de produtos (1KB)
+        assertThat(readThrough(request(BULK, "gzip", gzip(BODY)), new AtomicReference<>())).isEqualTo(BODY);
+
+        assertThatThrownBy(() -> readThrough(request(BATCH, "gzip", gzip(BODY)), new AtomicReference<>()))
+                .isInstanceOf(BodyTooLargeException.class);
+        assertThat(BodyTooLargeException.class.getAnnotation(ResponseStatus.class).value())
+                .isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @Test
+    void rejectsAsyncReads() throws Exception {
+        filter.doFilter(request(BULK, "gzip", gzip(BODY)), new MockHttpServletResponse(), (req, res) ->
+                assertThatThrownBy(() -> req.getInputStream().setReadListener(mock(ReadListener.class)))
+                        .isInstanceOf(IllegalStateException.class));
+    }
+
+    private String readThrough(MockHttpServletRequest request, AtomicReference<HttpServletRequest> seen) throws Exception {
+        AtomicReference<String> body = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            seen.set((HttpServletRequest) req);
+            body.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        });
+        return body.get();
+    }
+
+    private static MockHttpServletRequest request(String path, String encoding, byte[] content) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        if (encoding != null) {
+            request.addHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        request.setContent(content);
+        return request;
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out)) {
+            deflate.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
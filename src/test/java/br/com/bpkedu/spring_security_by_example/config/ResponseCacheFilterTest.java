@@ -0,0 +1,171 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.service.CatalogVersion;
+import br.com.bpkedu.spring_security_by_example.service.ResponseByteCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private static final String BODY = "[" + "{\"id\":1,\"name\":\"Produto\"},".repeat(100) + "{}]";
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private final ResponseCacheFilter filter = new ResponseCacheFilter(
+            new ResponseByteCache(catalogVersion, new SimpleMeterRegistry(), DataSize.ofMegabytes(1), 1000,
+                    Duration.ofMinutes(1)),
+            catalogVersion, true, List.of("/api/products", "/api/products/*"), List.of("ids"), true,
+            DataSize.ofKilobytes(1));
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+
+    @Test
+    void servesRepeatedReadsFromCache() throws Exception {
+        MockHttpServletResponse first = get(null);
+        MockHttpServletResponse second = get(null);
+
+        assertThat(controllerCalls).hasValue(1);
+        assertThat(second.getContentAsString()).isEqualTo(BODY).isEqualTo(first.getContentAsString());
+        assertThat(second.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    void storesGzipVariantSeparately() throws Exception {
+        get(null);
+        MockHttpServletResponse gzipped = get("gzip, deflate");
+        MockHttpServletResponse cachedGzip = get("gzip");
+
+        assertThat(controllerCalls).hasValue(2);
+        assertThat(cachedGzip.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(cachedGzip.getContentAsByteArray())).isEqualTo(BODY);
+        assertThat(cachedGzip.getContentAsByteArray()).isEqualTo(gzipped.getContentAsByteArray());
+        assertThat(cachedGzip.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void gzipRefusedWithZeroQualityIsNotSent() throws Exception {
+        MockHttpServletResponse response = get("gzip;q=0, identity");
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(BODY);
+    }
+
+    @Test
+    void parsesAcceptEncodingQualityValues() {
+        assertThat(ResponseCacheFilter.acceptsGzip("gzip")).isTrue();
+        assertThat(ResponseCacheFilter.acceptsGzip("deflate, gzip;q=0.5")).isTrue();
+        assertThat(ResponseCacheFilter.acceptsGzip("*")).isTrue();
+        assertThat(ResponseCacheFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ResponseCacheFilter.acceptsGzip("gzip; q=0.0, deflate")).isFalse();
+        assertThat(ResponseCacheFilter.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(ResponseCacheFilter.acceptsGzip("identity")).isFalse();
+        assertThat(ResponseCacheFilter.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void equivalentAcceptHeadersShareTheNegotiatedEntry() throws Exception {
+        get("/api/products", null, null, MediaType.APPLICATION_JSON_VALUE);
+        get("/api/products", null, MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE);
+        get("/api/products", null, "application/json, */*;q=0.8", MediaType.APPLICATION_JSON_VALUE);
+        get("/api/products", null, "*/*", MediaType.APPLICATION_JSON_VALUE);
+
+        assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Test
+    void negotiatesAmongProducedTypes() {
+        assertThat(ResponseCacheFilter.negotiate(null)).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(ResponseCacheFilter.negotiate("application/cbor")).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(ResponseCacheFilter.negotiate("application/cbor;q=0.5, application/json"))
+                .isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(ResponseCacheFilter.negotiate("application/json;q=0, */*")).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(ResponseCacheFilter.negotiate("text/html")).isNull();
+        assertThat(ResponseCacheFilter.negotiate("não é um tipo")).isNull();
+    }
+
+    @Test
+    void responseOfAnotherTypeThanNegotiatedIsNotCached() throws Exception {
+        get("/api/products", null, MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE);
+        get("/api/products", null, MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE);
+
+        assertThat(controllerCalls).hasValue(2);
+    }
+
+    @Test
+    void unknownQueryParameterBypassesTheCache() throws Exception {
+        get("/api/products", "ids=1,2", null, MediaType.APPLICATION_JSON_VALUE);
+        get("/api/products", "ids=1,2", null, MediaType.APPLICATION_JSON_VALUE);
+        assertThat(controllerCalls).hasValue(1);
+
+        MockHttpServletResponse first = get("/api/products", "ids=1,2&nocache=1", null, MediaType.APPLICATION_JSON_VALUE);
+        get("/api/products", "ids=1,2&nocache=2", null, MediaType.APPLICATION_JSON_VALUE);
+
+        assertThat(controllerCalls).hasValue(3);
+        assertThat(first.getContentAsString()).isEqualTo(BODY);
+    }
+
+    @Test
+    void productWriteForcesANewRead() throws Exception {
+        get(null);
+        catalogVersion.bump();
+        get(null);
+
+        assertThat(controllerCalls).hasValue(2);
+    }
+
+    private MockHttpServletResponse get(String acceptEncoding) throws Exception {
+        return get("/api/products", null, null, MediaType.APPLICATION_JSON_VALUE, acceptEncoding);
+    }
+
+    private MockHttpServletResponse get(String path, String query, String accept, String producedType) throws Exception {
+        return get(path, query, accept, producedType, null);
+    }
+
+    private MockHttpServletResponse get(String path, String query, String accept, String producedType,
+                                        String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        if (query != null) {
+            request.setQueryString(query);
+            for (String parameter : query.split("&")) {
+                String[] pair = parameter.split("=", 2);
+                request.addParameter(pair[0], pair[1]);
+            }
+        }
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            controllerCalls.incrementAndGet();
+            HttpServletResponse http = (HttpServletResponse) res;
+            http.setStatus(HttpServletResponse.SC_OK);
+            http.setContentType(producedType);
+            http.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+        });
+        return response;
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.service.RoleAuthorities;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityContextCodecTest {
+
+    @Test
+    void roundTripKeepsUsernameAndAuthorities() {
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                "maria", null, RoleAuthorities.forRole("ROLE_ADMIN"));
+
+        Authentication decoded = SecurityContextCodec.decode(SecurityContextCodec.encode(authentication));
+
+        assertThat(decoded).isNotNull();
+        assertThat(decoded.isAuthenticated()).isTrue();
+        assertThat(decoded.getName()).isEqualTo("maria");
+        assertThat(decoded.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] data = SecurityContextCodec.encode(UsernamePasswordAuthenticationToken.authenticated(
+                "maria", null, RoleAuthorities.forRole("ROLE_USER")));
+        data[0] = 99;
+
+        assertThat(SecurityContextCodec.decode(data)).isNull();
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        byte[] data = SecurityContextCodec.encode(UsernamePasswordAuthenticationToken.authenticated(
+                "maria", null, RoleAuthorities.forRole("ROLE_USER")));
+        byte[] truncated = new byte[data.length - 3];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+
+        assertThat(SecurityContextCodec.decode(truncated)).isNull();
+        assertThat(SecurityContextCodec.decode(new byte[0])).isNull();
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.bpkedu.spring_security_by_example.config;
+
+import br.com.bpkedu.spring_security_by_example.repository.JdbcSessionStore;
+import br.com.bpkedu.spring_security_by_example.service.RoleAuthorities;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoredSecurityContextRepositoryTest {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(30);
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("schema.sql")
+            .build();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+    private final StoredSecurityContextRepository repository =
+            new StoredSecurityContextRepository(new JdbcSessionStore(jdbcTemplate), TIMEOUT, "SESSION", false);
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void savedContextIsLoadedFromTheCookie() {
+        String id = login(null);
+
+        SecurityContext loaded = repository.loadDeferredContext(request(id)).get();
+
+        assertThat(loaded.getAuthentication()).isNotNull();
+        assertThat(loaded.getAuthentication().getName()).isEqualTo("maria");
+        assertThat(repository.containsContext(request(id))).isTrue();
+    }
+
+    @Test
+    void saveRotatesTheSessionId() {
+        String first = login(null);
+        String second = login(first);
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(sessionCount(first)).isZero();
+        assertThat(sessionCount(second)).isOne();
+        assertThat(repository.loadDeferredContext(request(first)).get().getAuthentication()).isNull();
+    }
+
+    @Test
+    void expiryIsExtendedOnlyAfterHalfTheTimeout() {
+        String id = login(null);
+        long initial = expiresAt(id);
+
+        repository.loadDeferredContext(request(id)).get();
+        assertThat(expiresAt(id)).isEqualTo(initial);
+
+        // Menos da metade do tempo de sessão restante: o acesso estende a expiração
+        long nearExpiry = System.currentTimeMillis() + TIMEOUT.toMillis() / 4;
+        jdbcTemplate.update("UPDATE security_sessions SET expires_at = ? WHERE id = ?", nearExpiry, id);
+        repository.loadDeferredContext(request(id)).get();
+        assertThat(expiresAt(id)).isGreaterThan(nearExpiry + TIMEOUT.toMillis() / 2);
+    }
+
+    @Test
+    void expiredSessionIsIgnoredAndCleanedUp() {
+        String id = login(null);
+        jdbcTemplate.update("UPDATE security_sessions SET expires_at = ? WHERE id = ?", System.currentTimeMillis() - 1, id);
+
+        assertThat(repository.loadDeferredContext(request(id)).get().getAuthentication()).isNull();
+        repository.deleteExpiredSessions();
+        assertThat(sessionCount(id)).isZero();
+    }
+
+    @Test
+    void logoutDeletesTheRowAndClearsTheCookie() {
+        String id = login(null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        repository.logout(request(id), response, null);
+
+        assertThat(sessionCount(id)).isZero();
+        assertThat(response.getHeader("Set-Cookie")).startsWith("SESSION=;").contains("Max-Age=0");
+    }
+
+    private String login(String previousId) {
+        SecurityContext context = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                "maria", null, RoleAuthorities.forRole("ROLE_USER")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        repository.saveContext(context, previousId != null ? request(previousId) : new MockHttpServletRequest(), response);
+
+        String cookie = response.getHeader("Set-Cookie");
+        assertThat(cookie).startsWith("SESSION=").contains("HttpOnly");
+        return cookie.substring("SESSION=".length(), cookie.indexOf(';'));
+    }
+
+    private static MockHttpServletRequest request(String sessionId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/home");
+        request.setCookies(new Cookie("SESSION", sessionId));
+        return request;
+    }
+
+    private int sessionCount(String id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM security_sessions WHERE id = ?", Integer.class, id);
+    }
+
+    private long expiresAt(String id) {
+        return jdbcTemplate.queryForObject("SELECT expires_at FROM security_sessions WHERE id = ?", Long.class, id);
+    }
+}
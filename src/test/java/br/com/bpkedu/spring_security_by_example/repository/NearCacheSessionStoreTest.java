@@ -0,0 +1,62 @@
+package br.com.bpkedu.spring_security_by_example.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearCacheSessionStoreTest {
+
+    private static final long TTL = 100;
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("schema.sql")
+            .build();
+    private final JdbcSessionStore shared = new JdbcSessionStore(new JdbcTemplate(database));
+    // Dois nós com cache local sobre o mesmo banco
+    private final NearCacheSessionStore nodeA = new NearCacheSessionStore(shared, TTL, 100);
+    private final NearCacheSessionStore nodeB = new NearCacheSessionStore(shared, TTL, 100);
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void localDeleteIsVisibleImmediately() {
+        nodeA.save("s1", new byte[]{1}, System.currentTimeMillis() + 60_000);
+        assertThat(nodeA.load("s1")).isPresent();
+
+        nodeA.delete("s1");
+
+        assertThat(nodeA.load("s1")).isEmpty();
+        assertThat(shared.load("s1")).isEmpty();
+    }
+
+    @Test
+    void deleteOnAnotherNodeIsSeenAfterTheTtl() throws InterruptedException {
+        nodeA.save("s1", new byte[]{1}, System.currentTimeMillis() + 60_000);
+        assertThat(nodeB.load("s1")).isPresent();
+
+        nodeA.delete("s1");
+
+        // nodeB ainda serve a cópia local até o TTL do cache
+        assertThat(nodeB.load("s1")).isPresent();
+        Thread.sleep(TTL * 2);
+        assertThat(nodeB.load("s1")).isEmpty();
+    }
+
+    @Test
+    void expiredSessionIsNotServedFromTheCache() throws InterruptedException {
+        nodeA.save("s1", new byte[]{1}, System.currentTimeMillis() + 20);
+        Thread.sleep(40);
+
+        assertThat(nodeA.load("s1")).isEmpty();
+    }
+}
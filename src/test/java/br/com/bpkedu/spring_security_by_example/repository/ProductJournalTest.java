@@ -0,0 +1,238 @@
+package br.com.bpkedu.spring_security_by_example.repository;
+
+import br.com.bpkedu.spring_security_by_example.domain.ProductChange;
+import br.com.bpkedu.spring_security_by_example.domain.ProductChange.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<ProductJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (ProductJournal journal : opened) {
+            journal.destroy();
+        }
+    }
+
+    @Test
+    void replaysAppendedChangesAfterRestart() throws Exception {
+        ProductJournal journal = open(DataSize.ofMegabytes(1));
+        List<ProductChange> appended = List.of(
+                new ProductChange(-1, 0, Type.CREATE, 1, "Notebook", "Intel i7, 16GB", new BigDecimal("4599.90"), 15),
+                new ProductChange(-1, 0, Type.UPDATE, 1, "Notebook", null, new BigDecimal("4299.00"), null),
+                new ProductChange(-1, 0, Type.DELETE, 1, null, null, null, null));
+        for (ProductChange change : appended) {
+            journal.append(change);
+        }
+
+        List<ProductChange> replayed = replayAll(journal);
+        assertThat(replayed).extracting(ProductChange::sequence).containsExactly(0L, 1L, 2L);
+        assertThat(replayed).usingRecursiveFieldByFieldElementComparatorIgnoringFields("sequence", "timestamp")
+                .containsExactlyElementsOf(appended);
+
+        close(journal);
+        ProductJournal reopened = open(DataSize.ofMegabytes(1));
+        assertThat(replayAll(reopened)).isEqualTo(replayed);
+        assertThat(reopened.nextSequence()).isEqualTo(3);
+
+        List<ProductChange> fromMiddle = new ArrayList<>();
+        assertThat(reopened.replay(1, 1, fromMiddle::add)).isEqualTo(2);
+        assertThat(fromMiddle).containsExactly(replayed.get(1));
+    }
+
+    @Test
+    void discardsTornRecordAtTheTail() throws Exception {
+        ProductJournal journal = open(DataSize.ofMegabytes(1));
+        for (int i = 0; i < 3; i++) {
+            journal.append(update(i, i));
+        }
+        close(journal);
+        corruptLastRecord(segmentFiles().get(0));
+
+        ProductJournal reopened = open(DataSize.ofMegabytes(1));
+        assertThat(replayAll(reopened)).extracting(ProductChange::sequence).containsExactly(0L, 1L);
+        assertThat(reopened.nextSequence()).isEqualTo(2);
+
+        // O espaço do registro descartado é reaproveitado pelo próximo append
+        reopened.append(update(7, 7));
+        close(reopened);
+        assertThat(replayAll(open(DataSize.ofMegabytes(1))))
+                .extracting(ProductChange::productId).containsExactly(0L, 1L, 7L);
+    }
+
+    @Test
+    void rollsToNewSegmentWhenFull() throws Exception {
+        ProductJournal journal = open(DataSize.ofBytes(512));
+        for (int i = 0; i < 50; i++) {
+            journal.append(update(i % 5, i));
+        }
+
+        assertThat(segmentFiles()).hasSizeGreaterThan(3);
+        assertThat(replayAll(journal)).extracting(ProductChange::sequence)
+                .containsExactlyElementsOf(sequences(0, 50));
+
+        List<ProductChange> page = new ArrayList<>();
+        assertThat(journal.replay(20, 10, page::add)).isEqualTo(30);
+        assertThat(page).extracting(ProductChange::sequence).containsExactlyElementsOf(sequences(20, 30));
+
+        close(journal);
+        ProductJournal reopened = open(DataSize.ofBytes(512));
+        assertThat(reopened.nextSequence()).isEqualTo(50);
+        assertThat(replayAll(reopened)).hasSize(50);
+    }
+
+    @Test
+    void compactionKeepsLatestRecordOfEachProductIncludingDeletes() throws Exception {
+        ProductJournal journal = open(DataSize.ofBytes(512));
+        fillForCompaction(journal);
+        List<ProductChange> before = replayAll(journal);
+        int filesBefore = segmentFiles().size();
+
+        journal.compact();
+
+        List<ProductChange> after = replayAll(journal);
+        assertThat(after.size()).isLessThan(before.size());
+        assertThat(segmentFiles().size()).isLessThan(filesBefore);
+        assertThat(after).extracting(ProductChange::sequence).isSorted().doesNotHaveDuplicates();
+        assertThat(latestByProduct(after)).isEqualTo(latestByProduct(before));
+        assertThat(latestByProduct(after).get(2L).type()).isEqualTo(Type.DELETE);
+
+        close(journal);
+        ProductJournal reopened = open(DataSize.ofBytes(512));
+        assertThat(replayAll(reopened)).isEqualTo(after);
+        assertThat(reopened.append(update(1, 99))).isEqualTo(before.size());
+    }
+
+    @Test
+    void restartsCleanlyAfterInterruptedCompaction() throws Exception {
+        ProductJournal journal = open(DataSize.ofBytes(512));
+        fillForCompaction(journal);
+        Map<Path, byte[]> beforeCompaction = new HashMap<>();
+        for (Path file : segmentFiles()) {
+            beforeCompaction.put(file.getFileName(), Files.readAllBytes(file));
+        }
+
+        journal.compact();
+        List<ProductChange> compacted = replayAll(journal);
+        List<Path> filesAfter = segmentFiles();
+        close(journal);
+
+        // Estado de uma queda logo após o rename: os segmentos antigos ainda não foram apagados
+        for (Map.Entry<Path, byte[]> file : beforeCompaction.entrySet()) {
+            Path path = directory.resolve(file.getKey());
+            if (!Files.exists(path)) {
+                Files.write(path, file.getValue());
+            }
+        }
+        Path leftover = directory.resolve("00000000000000000099.journal.compacting");
+        Files.write(leftover, new byte[] {1, 2, 3});
+
+        ProductJournal reopened = open(DataSize.ofBytes(512));
+        assertThat(replayAll(reopened)).isEqualTo(compacted);
+        assertThat(segmentFiles()).isEqualTo(filesAfter);
+        assertThat(leftover).doesNotExist();
+    }
+
+    /**
+     * Várias atualizações dos produtos 1 a 3, a exclusão do 2 e atualizações do 1 até
+     * que a exclusão fique em um segmento fechado.
+     */
+    private static void fillForCompaction(ProductJournal journal) {
+        for (int i = 0; i < 30; i++) {
+            journal.append(update(1 + i % 3, i));
+        }
+        journal.append(new ProductChange(-1, 0, Type.DELETE, 2, null, null, null, null));
+        for (int i = 0; i < 15; i++) {
+            journal.append(update(1, 100 + i));
+        }
+    }
+
+    private ProductJournal open(DataSize segmentSize) throws IOException {
+        ProductJournal journal = new ProductJournal(directory, segmentSize, true, 1, 2);
+        opened.add(journal);
+        return journal;
+    }
+
+    private void close(ProductJournal journal) throws InterruptedException {
+        opened.remove(journal);
+        journal.destroy();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static List<ProductChange> replayAll(ProductJournal journal) {
+        List<ProductChange> changes = new ArrayList<>();
+        journal.replay(0, Integer.MAX_VALUE, changes::add);
+        return changes;
+    }
+
+    private static Map<Long, ProductChange> latestByProduct(List<ProductChange> changes) {
+        Map<Long, ProductChange> latest = new HashMap<>();
+        for (ProductChange change : changes) {
+            latest.put(change.productId(), change);
+        }
+        return latest;
+    }
+
+    private static List<Long> sequences(long from, long to) {
+        List<Long> sequences = new ArrayList<>();
+        for (long sequence = from; sequence < to; sequence++) {
+            sequences.add(sequence);
+        }
+        return sequences;
+    }
+
+    private static ProductChange update(long productId, int quantity) {
+        return new ProductChange(-1, 0, Type.UPDATE, productId, "Produto " + productId, null,
+                new BigDecimal("19.90"), quantity);
+    }
+
+    /**
+     * Simula uma escrita interrompida: o tamanho do último registro foi gravado, mas o
+     * payload não chegou inteiro ao disco.
+     */
+    private static void corruptLastRecord(Path segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long position = 0;
+            long last = -1;
+            int length;
+            while (position + 4 <= file.length()) {
+                file.seek(position);
+                length = file.readInt();
+                if (length == 0) {
+                    break;
+                }
+                last = position;
+                position += 8 + length;
+            }
+            file.seek(last + 8);
+            int first = file.read();
+            file.seek(last + 8);
+            file.write(first ^ 0xFF);
+        }
+    }
+}
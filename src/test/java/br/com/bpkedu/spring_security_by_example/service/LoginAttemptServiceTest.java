@@ -0,0 +1,130 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import br.com.bpkedu.spring_security_by_example.domain.User;
+import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class LoginAttemptServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private LoginAttemptService service(long lockDuration, int maxSourceFailures, int maxFailuresPerSecond) {
+        return new LoginAttemptService(userRepository, 3, lockDuration, 1_000, 100, 10,
+                maxSourceFailures, 60_000, maxFailuresPerSecond);
+    }
+
+    @Test
+    void backOffDoublesFromMaxAttemptsUpToMaximum() {
+        LoginAttemptService service = service(100, 1_000, 1_000);
+
+        assertThat(service.lockDurationFor(3)).isEqualTo(100);
+        assertThat(service.lockDurationFor(4)).isEqualTo(200);
+        assertThat(service.lockDurationFor(6)).isEqualTo(800);
+        assertThat(service.lockDurationFor(7)).isEqualTo(1_000);
+        assertThat(service.lockDurationFor(100)).isEqualTo(1_000);
+    }
+
+    @Test
+    void locksAfterMaxAttemptsAndPersistsState() {
+        LoginAttemptService service = service(60_000, 1_000, 1_000);
+
+        service.loginFailed("alice", "10.0.0.1");
+        service.loginFailed("alice", "10.0.0.1");
+        assertThat(service.isBlocked("alice")).isFalse();
+
+        service.loginFailed("alice", "10.0.0.1");
+        assertThat(service.isBlocked("alice")).isTrue();
+        verify(userRepository).updateLoginAttempts(eq("alice"), eq(3), any(Instant.class));
+    }
+
+    @Test
+    void unlocksAfterLockDurationAndResetsOnSuccess() throws InterruptedException {
+        LoginAttemptService service = service(20, 1_000, 1_000);
+        for (int i = 0; i < 3; i++) {
+            service.loginFailed("alice", null);
+        }
+        assertThat(service.isBlocked("alice")).isTrue();
+
+        Thread.sleep(50);
+        assertThat(service.isBlocked("alice")).isFalse();
+
+        service.loginSucceeded("alice");
+        verify(userRepository).updateLoginAttempts(eq("alice"), eq(0), isNull());
+    }
+
+    @Test
+    void restoreLoadsPersistedLock() {
+        LoginAttemptService service = service(60_000, 1_000, 1_000);
+        User user = new User("bob", "x", "bob@example.com", "ROLE_USER");
+        user.setFailedAttempts(5);
+        user.setLockedUntil(Instant.now().plusSeconds(60));
+
+        service.restore(user);
+
+        assertThat(service.isBlocked("bob")).isTrue();
+    }
+
+    @Test
+    void unknownUsersStayInMemoryOnly() {
+        LoginAttemptService service = service(60_000, 1_000, 1_000);
+        for (int i = 0; i < 3; i++) {
+            service.unknownUserFailed("ghost", "10.0.0.1");
+        }
+
+        assertThat(service.isBlocked("ghost")).isTrue();
+        verify(userRepository, never()).updateLoginAttempts(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void unknownUsersDoNotEvictRealUsers() {
+        LoginAttemptService service = service(60_000, 1_000, 1_000);
+        for (int i = 0; i < 3; i++) {
+            service.loginFailed("alice", null);
+        }
+        // Mais inexistentes do que cabem em qualquer um dos mapas
+        for (int i = 0; i < 500; i++) {
+            service.unknownUserFailed("spray-" + i, null);
+        }
+
+        assertThat(service.isBlocked("alice")).isTrue();
+    }
+
+    @Test
+    void throttlesSourceAfterTooManyFailures() {
+        LoginAttemptService service = service(60_000, 5, 1_000);
+        for (int i = 0; i < 5; i++) {
+            service.unknownUserFailed("user-" + i, "10.0.0.1");
+        }
+
+        assertThat(service.isThrottled("10.0.0.1")).isTrue();
+        assertThat(service.isThrottled("10.0.0.2")).isFalse();
+    }
+
+    @Test
+    void globalLimitFlagsAttackWithoutThrottlingOtherSources() {
+        LoginAttemptService service = service(60_000, 1_000, 5);
+        long second = System.currentTimeMillis() / 1000;
+        for (int i = 0; i < 5; i++) {
+            service.unknownUserFailed("user-" + i, "10.0.0." + i);
+        }
+
+        // O limite global vale só para o segundo corrente
+        if (System.currentTimeMillis() / 1000 == second) {
+            assertThat(service.isUnderAttack()).isTrue();
+        }
+        assertThat(service.isThrottled("10.0.0.99")).isFalse();
+        assertThat(service.isThrottled(null)).isFalse();
+    }
+}
@@ -0,0 +1,200 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import br.com.bpkedu.spring_security_by_example.repository.ReferenceTokenStore;
+import br.com.bpkedu.spring_security_by_example.service.ReferenceTokenService.Principal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceTokenServiceTest {
+
+    private final InMemoryStore store = new InMemoryStore();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        store.releaseLoad.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void resolvesIssuedToken() {
+        ReferenceTokenService service = service(Duration.ofHours(1), 100, Duration.ofMinutes(1));
+
+        String token = service.issue(authentication("maria", "ROLE_USER"));
+
+        assertThat(ReferenceTokenService.isReferenceToken(token)).isTrue();
+        assertThat(ReferenceTokenService.isReferenceToken("eyJhbGciOiJIUzI1NiJ9.e30.assinatura")).isFalse();
+        Principal principal = service.resolve(token).orElseThrow();
+        assertThat(principal.username()).isEqualTo("maria");
+        assertThat(principal.authorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+        assertThat(store.loads).hasValue(0);
+        assertThat(service.resolve("A".repeat(32))).isEmpty();
+    }
+
+    @Test
+    void rejectsExpiredToken() throws InterruptedException {
+        ReferenceTokenService service = service(Duration.ofMillis(20), 100, Duration.ofMinutes(1));
+        String token = service.issue(authentication("maria", "ROLE_USER"));
+
+        Thread.sleep(50);
+
+        assertThat(service.resolve(token)).isEmpty();
+        service.deleteExpired();
+        assertThat(store.tokens).isEmpty();
+    }
+
+    @Test
+    void reloadsEvictedTokensFromStore() {
+        ReferenceTokenService service = service(Duration.ofHours(1), 10, Duration.ofMinutes(1));
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            tokens.add(service.issue(authentication("user" + i, "ROLE_USER")));
+        }
+
+        for (int i = 0; i < tokens.size(); i++) {
+            assertThat(service.resolve(tokens.get(i))).map(Principal::username).contains("user" + i);
+        }
+        assertThat(store.loads.get()).isGreaterThan(0);
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        ReferenceTokenService service = service(Duration.ofHours(1), 100, Duration.ofMinutes(1));
+        String token = service.issue(authentication("maria", "ROLE_USER"));
+        String other = service.issue(authentication("maria", "ROLE_USER"));
+
+        service.revoke(token);
+
+        assertThat(service.resolve(token)).isEmpty();
+        assertThat(service.resolve(other)).isPresent();
+    }
+
+    @Test
+    void revokeAllRejectsEveryTokenOfTheUser() {
+        ReferenceTokenService service = service(Duration.ofHours(1), 100, Duration.ofMinutes(1));
+        String first = service.issue(authentication("maria", "ROLE_USER"));
+        String second = service.issue(authentication("maria", "ROLE_ADMIN"));
+        String other = service.issue(authentication("joao", "ROLE_USER"));
+
+        assertThat(service.revokeAll("maria")).isEqualTo(2);
+
+        assertThat(service.resolve(first)).isEmpty();
+        assertThat(service.resolve(second)).isEmpty();
+        assertThat(service.resolve(other)).isPresent();
+    }
+
+    @Test
+    void resolutionThatReadTheStoreBeforeRevocationDoesNotCacheTheToken() throws Exception {
+        // Índice de uma entrada: o token abaixo é removido da memória e precisa ser lido do banco
+        ReferenceTokenService service = service(Duration.ofHours(1), 1, Duration.ofMinutes(1));
+        String token = service.issue(authentication("maria", "ROLE_USER"));
+        service.issue(authentication("joao", "ROLE_USER"));
+
+        store.blockNextLoad();
+        Future<Optional<Principal>> concurrent = executor.submit(() -> service.resolve(token));
+        assertThat(store.loadRead.await(5, TimeUnit.SECONDS)).isTrue();
+
+        service.revoke(token);
+        store.releaseLoad.countDown();
+
+        assertThat(concurrent.get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(service.resolve(token)).isEmpty();
+    }
+
+    @Test
+    void recheckSeesRevocationMadeByAnotherNode() throws InterruptedException {
+        ReferenceTokenService service = service(Duration.ofHours(1), 100, Duration.ofMillis(500));
+        String token = service.issue(authentication("maria", "ROLE_USER"));
+        assertThat(service.resolve(token)).isPresent();
+
+        // Outro nó apagou a linha: este só percebe na próxima conferência
+        store.tokens.clear();
+        assertThat(service.resolve(token)).isPresent();
+        Thread.sleep(600);
+
+        assertThat(service.resolve(token)).isEmpty();
+    }
+
+    private ReferenceTokenService service(Duration ttl, int maxEntries, Duration recheckInterval) {
+        return new ReferenceTokenService(store, ttl, maxEntries, recheckInterval);
+    }
+
+    private static Authentication authentication(String username, String role) {
+        return new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList(role));
+    }
+
+    private static final class InMemoryStore implements ReferenceTokenStore {
+
+        final Map<String, StoredToken> tokens = new ConcurrentHashMap<>();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loadRead = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        volatile boolean blockNext;
+
+        void blockNextLoad() {
+            blockNext = true;
+        }
+
+        @Override
+        public Optional<StoredToken> load(String hash) {
+            loads.incrementAndGet();
+            StoredToken token = tokens.get(hash);
+            Optional<StoredToken> result = Optional.ofNullable(token)
+                    .filter(found -> found.expiresAt() > System.currentTimeMillis());
+            if (blockNext) {
+                // A linha já foi lida; o delete concorrente acontece antes do retorno
+                blockNext = false;
+                loadRead.countDown();
+                try {
+                    releaseLoad.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void save(StoredToken token) {
+            tokens.put(token.hash(), token);
+        }
+
+        @Override
+        public void delete(String hash) {
+            tokens.remove(hash);
+        }
+
+        @Override
+        public int deleteByUsername(String username) {
+            int before = tokens.size();
+            tokens.values().removeIf(token -> token.username().equals(username));
+            return before - tokens.size();
+        }
+
+        @Override
+        public int deleteExpired(long now) {
+            int before = tokens.size();
+            tokens.values().removeIf(token -> token.expiresAt() <= now);
+            return before - tokens.size();
+        }
+    }
+}
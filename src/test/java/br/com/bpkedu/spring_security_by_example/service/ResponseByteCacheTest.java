@@ -0,0 +1,138 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import br.com.bpkedu.spring_security_by_example.service.ResponseByteCache.Entry;
+import br.com.bpkedu.spring_security_by_example.service.ResponseByteCache.Key;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseByteCacheTest {
+
+    private static final Key PRODUCTS = new Key("/api/products", null, "application/json", false);
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void countsHitsAndMisses() {
+        ResponseByteCache cache = cache(DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+
+        assertThat(cache.get(PRODUCTS)).isNull();
+        Entry entry = entry(10);
+        cache.put(PRODUCTS, entry);
+
+        assertThat(cache.get(PRODUCTS)).isSameAs(entry);
+        assertThat(registry.get("response.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(registry.get("response.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void discardsResponseReadBeforeAConcurrentWrite() {
+        ResponseByteCache cache = cache(DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+
+        Entry readBeforeWrite = entry(10);
+        catalogVersion.bump();
+        cache.put(PRODUCTS, readBeforeWrite);
+
+        assertThat(cache.get(PRODUCTS)).isNull();
+    }
+
+    @Test
+    void writeInvalidatesStoredEntries() {
+        ResponseByteCache cache = cache(DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+        cache.put(PRODUCTS, entry(10));
+
+        catalogVersion.bump();
+
+        assertThat(cache.get(PRODUCTS)).isNull();
+        assertThat(registry.get("response.cache.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedToStayWithinTheByteBudget() {
+        // Cada entrada ocupa 40 bytes de corpo + 15 do caminho + 16 do Content-Type = 71
+        ResponseByteCache cache = cache(DataSize.ofBytes(150), Duration.ofMinutes(1));
+        Key first = new Key("/api/products/1", null, null, false);
+        Key second = new Key("/api/products/2", null, null, false);
+        Key third = new Key("/api/products/3", null, null, false);
+
+        cache.put(first, entry(40));
+        cache.put(second, entry(40));
+        cache.get(first);
+        cache.put(third, entry(40));
+
+        assertThat(cache.get(second)).isNull();
+        assertThat(cache.get(first)).isNotNull();
+        assertThat(cache.get(third)).isNotNull();
+        assertThat(registry.get("response.cache.size").gauge().value()).isEqualTo(142);
+
+        cache.put(new Key("/api/products", null, null, false), entry(151));
+        assertThat(registry.get("response.cache.size").gauge().value()).isEqualTo(142);
+    }
+
+    @Test
+    void keyCountsAgainstTheByteBudget() {
+        ResponseByteCache cache = cache(DataSize.ofBytes(200), Duration.ofMinutes(1));
+        // Corpo pequeno, query string grande: a chave sozinha estoura o limite
+        Key manyIds = new Key("/api/products", "ids=" + "1,".repeat(100), "application/json", false);
+
+        cache.put(manyIds, entry(10));
+
+        assertThat(cache.get(manyIds)).isNull();
+        assertThat(registry.get("response.cache.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void capsTheNumberOfEntries() {
+        ResponseByteCache cache = new ResponseByteCache(catalogVersion, registry, DataSize.ofMegabytes(1), 2,
+                Duration.ofMinutes(1));
+        Key first = new Key("/api/products/1", null, null, false);
+        Key second = new Key("/api/products/2", null, null, false);
+        Key third = new Key("/api/products/3", null, null, false);
+
+        cache.put(first, entry(1));
+        cache.put(second, entry(1));
+        cache.put(third, entry(1));
+
+        assertThat(cache.get(first)).isNull();
+        assertThat(cache.get(second)).isNotNull();
+        assertThat(cache.get(third)).isNotNull();
+    }
+
+    @Test
+    void keepsGzipAndIdentityVariantsApart() {
+        ResponseByteCache cache = cache(DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+        Key gzipKey = new Key("/api/products", null, "application/json", true);
+        Entry identity = entry(20);
+        Entry gzipped = new Entry(new byte[8], "application/json", true, catalogVersion.current());
+
+        cache.put(PRODUCTS, identity);
+        cache.put(gzipKey, gzipped);
+
+        assertThat(cache.get(PRODUCTS)).isSameAs(identity);
+        assertThat(cache.get(gzipKey)).isSameAs(gzipped);
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws InterruptedException {
+        ResponseByteCache cache = cache(DataSize.ofKilobytes(1), Duration.ofMillis(20));
+        cache.put(PRODUCTS, entry(10));
+
+        Thread.sleep(50);
+
+        assertThat(cache.get(PRODUCTS)).isNull();
+        assertThat(registry.get("response.cache.size").gauge().value()).isZero();
+    }
+
+    private ResponseByteCache cache(DataSize maxSize, Duration ttl) {
+        return new ResponseByteCache(catalogVersion, registry, maxSize, 1000, ttl);
+    }
+
+    private Entry entry(int size) {
+        return new Entry(new byte[size], "application/json", false, catalogVersion.current());
+    }
+}
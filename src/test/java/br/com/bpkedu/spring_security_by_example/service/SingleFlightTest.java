@@ -0,0 +1,136 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 4;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch followersJoined = new CountDownLatch(FOLLOWERS);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String, String> flight = flight(Duration.ofSeconds(5));
+
+        Future<String> leader = executor.submit(() -> flight.load("k", () -> blockingLoad("valor")));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        List<Future<String>> followers = follow(flight, () -> "outro");
+        followersJoined.await(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("valor");
+        for (Future<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(leader.get());
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failurePropagatesToEveryWaiter() throws Exception {
+        SingleFlight<String, String> flight = flight(Duration.ofSeconds(5));
+        IllegalStateException failure = new IllegalStateException("banco fora do ar");
+
+        Future<String> leader = executor.submit(() -> flight.load("k", () -> {
+            blockingLoad("ignorado");
+            throw failure;
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        List<Future<String>> followers = follow(flight, () -> "outro");
+        followersJoined.await(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class).hasCause(failure);
+        for (Future<String> follower : followers) {
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class).hasCause(failure);
+        }
+    }
+
+    @Test
+    void followerGivesUpAfterTimeout() throws Exception {
+        SingleFlight<String, String> flight = flight(Duration.ofMillis(50));
+
+        executor.submit(() -> flight.load("k", () -> blockingLoad("valor")));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> flight.load("k", () -> "outro"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Tempo esgotado");
+    }
+
+    @Test
+    void keyIsRemovedAfterCompletion() {
+        SingleFlight<String, String> flight = flight(Duration.ofSeconds(5));
+
+        assertThat(flight.load("k", () -> "primeiro")).isEqualTo("primeiro");
+        assertThat(flight.load("k", () -> "segundo")).isEqualTo("segundo");
+        assertThatThrownBy(() -> flight.load("k", () -> {
+            throw new IllegalArgumentException("falha");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(flight.load("k", () -> "terceiro")).isEqualTo("terceiro");
+    }
+
+    @Test
+    void callersAfterForgetDoNotJoinTheEarlierLoad() throws Exception {
+        SingleFlight<String, String> flight = flight(Duration.ofSeconds(5));
+
+        Future<String> stale = executor.submit(() -> flight.load("k", () -> blockingLoad("antes da escrita")));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        flight.forget("k");
+
+        assertThat(flight.load("k", () -> "depois da escrita")).isEqualTo("depois da escrita");
+        release.countDown();
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("antes da escrita");
+        assertThat(followersJoined.getCount()).isEqualTo(FOLLOWERS);
+    }
+
+    private SingleFlight<String, String> flight(Duration timeout) {
+        return new SingleFlight<>(timeout, followersJoined::countDown);
+    }
+
+    private String blockingLoad(String value) {
+        loads.incrementAndGet();
+        leaderStarted.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    private List<Future<String>> follow(SingleFlight<String, String> flight, Supplier<String> loader) {
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() -> flight.load("k", loader)));
+        }
+        return followers;
+    }
+}
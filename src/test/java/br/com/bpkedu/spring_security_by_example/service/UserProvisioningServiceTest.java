@@ -0,0 +1,129 @@
+package br.com.bpkedu.spring_security_by_example.service;
+
+import br.com.bpkedu.spring_security_by_example.domain.User;
+import br.com.bpkedu.spring_security_by_example.dto.BulkUserResultDTO;
+import br.com.bpkedu.spring_security_by_example.dto.BulkUserResultDTO.Status;
+import br.com.bpkedu.spring_security_by_example.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserProvisioningServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserProvisioningService service = new UserProvisioningService(
+            userRepository,
+            mock(ReferenceTokenService.class),
+            mock(UserDetailsServiceImpl.class),
+            NoOpPasswordEncoder.getInstance(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            objectMapper,
+            2,
+            2);
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void reportsPerLineErrorsAndCreatesValidLines() throws IOException {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of("taken"));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(userRepository.saveAll(any())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        List<BulkUserResultDTO> results = bulk(
+                line("maria", "maria@example.com", "USER"),
+                "{not json",
+                line("jo", "jo@example.com", "USER"),
+                line("pedro", "pedro@example.com", "SUPERUSER"),
+                "",
+                line("taken", "taken@example.com", "ADMIN"));
+
+        assertThat(results).extracting(BulkUserResultDTO::getStatus)
+                .containsExactly(Status.CREATED, Status.INVALID, Status.INVALID, Status.INVALID, Status.DUPLICATE);
+        assertThat(results).extracting(BulkUserResultDTO::getLine).containsExactly(1L, 2L, 3L, 4L, 6L);
+        assertThat(results).extracting(BulkUserResultDTO::getProcessed).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(results.get(0).getId()).isNotNull();
+    }
+
+    @Test
+    void rejectsDuplicatesWithinTheSameFile() throws IOException {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(userRepository.saveAll(any())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        List<BulkUserResultDTO> results = bulk(
+                line("maria", "maria@example.com", "USER"),
+                line("maria", "outra@example.com", "USER"),
+                line("joana", "maria@example.com", "USER"));
+
+        assertThat(results).extracting(BulkUserResultDTO::getStatus)
+                .containsExactly(Status.CREATED, Status.DUPLICATE, Status.DUPLICATE);
+    }
+
+    @Test
+    void retriesRowByRowWhenTheBatchHitsAUniqueConstraint() throws IOException {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(userRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("unique"));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getUsername().equals("concurrent")) {
+                throw new DataIntegrityViolationException("unique");
+            }
+            user.setId(7L);
+            return user;
+        });
+
+        List<BulkUserResultDTO> results = bulk(
+                line("maria", "maria@example.com", "USER"),
+                line("concurrent", "concurrent@example.com", "USER"));
+
+        assertThat(results).extracting(BulkUserResultDTO::getStatus)
+                .containsExactly(Status.CREATED, Status.DUPLICATE);
+        assertThat(results.get(0).getId()).isEqualTo(7L);
+    }
+
+    private List<BulkUserResultDTO> bulk(String... lines) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.bulkCreate(new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)), output);
+
+        List<BulkUserResultDTO> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, BulkUserResultDTO.class));
+        }
+        return results;
+    }
+
+    private static String line(String username, String email, String role) {
+        return "{\"username\":\"" + username + "\",\"password\":\"secret123\",\"email\":\"" + email
+                + "\",\"role\":\"" + role + "\"}";
+    }
+
+    private static List<User> withIds(List<User> users) {
+        long id = 1;
+        for (User user : users) {
+            user.setId(id++);
+        }
+        return users;
+    }
+}